@@ -0,0 +1,106 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import payment.PaymentRecord;
+import payment.PaymentResult;
+import persistence.Journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// a bank statement of STATEMENT lines, applied through payAll and line by line through pay;
+// the single path resolves each contract number itself, as a statement importer would have to;
+// with a journal every single payment waits for its own commit, the batch waits once
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BatchPaymentBenchmark {
+
+    private static final int STATEMENT = 20_000;
+
+    @Param({"1000", "100000"})
+    public int contracts;
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private InsuranceCompany company;
+    private List<PaymentRecord> statement;
+    private Path journalPath;
+    private Journal journal;
+
+    @Setup(Level.Trial)
+    public void createBook() throws IOException {
+
+        company = SyntheticData.book(contracts, 0);
+        if ( journaled ) {
+            journalPath = Files.createTempFile("payments", ".journal");
+            journal = new Journal(journalPath);
+            company.setJournal(journal);
+        }
+        statement = new ArrayList<>(STATEMENT);
+        Random random = new Random(42);
+        for ( int i = 0; i < STATEMENT; i++ ) {
+            String contractNumber = SyntheticData.contractNumber("V", random.nextInt(contracts));
+            statement.add(new PaymentRecord(contractNumber, 1 + random.nextInt(100),
+                    SyntheticData.START.plusMinutes(i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeJournal() throws IOException {
+
+        if ( journal != null ) {
+            journal.close();
+            Files.delete(journalPath);
+        }
+    }
+
+    // replaying the statement would otherwise insert every line into the middle of a sorted history
+    @Setup(Level.Invocation)
+    public void clearHistory() {
+        company.getHandler().getPaymentHistory().clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENT)
+    public List<PaymentResult> payAll() {
+        return company.getHandler().payAll(statement);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENT)
+    public int paySingle() {
+
+        int applied = 0;
+        for ( PaymentRecord record : statement ) {
+            AbstractContract contract = company.getContract(record.getContractNumber());
+            company.getHandler().pay(contract, record.getAmount());
+            applied++;
+        }
+        return applied;
+    }
+}
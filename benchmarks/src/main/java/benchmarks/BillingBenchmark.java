@@ -0,0 +1,54 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// one billing run after the clock jumps by the given number of months; every run starts from a fresh book
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BillingBenchmark {
+
+    private static final int FLEETS = 20;
+    private static final int FLEET_SIZE = 500;
+
+    @Param({"100000"})
+    public int bookSize;
+
+    @Param({"1", "12", "120"})
+    public int months;
+
+    private InsuranceCompany company;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+
+        company = SyntheticData.book(bookSize, bookSize / 4);
+        for ( int i = 0; i < FLEETS; i++ ) {
+            SyntheticData.fleet(company, i, FLEET_SIZE, bookSize + (long) i * FLEET_SIZE);
+        }
+    }
+
+    @Benchmark
+    public InsuranceCompany chargePremiumsOnContracts() {
+        company.setCurrentTime(SyntheticData.START.plusMonths(months));
+        company.chargePremiumsOnContracts();
+        return company;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// a travel claim deactivates its contract, so each iteration gets exactly one fresh contract per call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = ClaimBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = ClaimBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ClaimBenchmark {
+
+    static final int BATCH = 10_000;
+
+    private InsuranceCompany company;
+    private List<SingleVehicleContract> vehicles;
+    private List<TravelContract> travels;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+
+        company = SyntheticData.book(BATCH, BATCH);
+        vehicles = SyntheticData.vehicleContracts(company, BATCH);
+        travels = new ArrayList<>(BATCH);
+        for ( int i = 0; i < BATCH; i++ ) {
+            travels.add((TravelContract) company.getContract(SyntheticData.contractNumber("T", i)));
+        }
+        next = 0;
+    }
+
+    // damages below the 70% threshold keep the contract active
+    @Benchmark
+    public SingleVehicleContract processVehicleClaim() {
+        SingleVehicleContract contract = vehicles.get(next++);
+        company.processClaim(contract, 1);
+        return contract;
+    }
+
+    @Benchmark
+    public TravelContract processTravelClaim() {
+        TravelContract contract = travels.get(next++);
+        company.processClaim(contract, contract.getInsuredPersons());
+        return contract;
+    }
+}
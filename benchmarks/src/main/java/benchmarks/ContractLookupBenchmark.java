@@ -0,0 +1,60 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// lookups by contract number should cost the same on a small and a large book
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx3g"})
+public class ContractLookupBenchmark {
+
+    private static final int KEYS = 4096;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookSize;
+
+    private InsuranceCompany company;
+    private String[] present;
+    private String[] missing;
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        company = SyntheticData.book(bookSize, 0);
+        present = new String[KEYS];
+        missing = new String[KEYS];
+        for ( int i = 0; i < KEYS; i++ ) {
+            present[i] = SyntheticData.contractNumber("V", (long) i * bookSize / KEYS);
+            missing[i] = SyntheticData.contractNumber("X", i);
+        }
+    }
+
+    @Benchmark
+    public AbstractContract getContract() {
+        return company.getContract(present[next++ & (KEYS - 1)]);
+    }
+
+    // the duplicate check issuance runs for every new contract number
+    @Benchmark
+    public boolean containsMissingContract() {
+        return company.containsContract(missing[next++ & (KEYS - 1)]);
+    }
+}
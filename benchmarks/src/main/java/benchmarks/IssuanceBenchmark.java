@@ -0,0 +1,52 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// issuance cost should not depend on how many contracts the company already holds;
+// the book is built once per trial and keeps growing by what the iterations issue
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx3g"})
+public class IssuanceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookSize;
+
+    private InsuranceCompany company;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        company = SyntheticData.book(bookSize, bookSize / 4);
+        next = bookSize;
+    }
+
+    @Benchmark
+    public SingleVehicleContract insureVehicle() {
+        return SyntheticData.insureVehicle(company, next++);
+    }
+
+    @Benchmark
+    public TravelContract insurePersons() {
+        return SyntheticData.insurePersons(company, next++, 2);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import payment.ContractPaymentData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// a fleet of 5,000 vehicles prepaying several years at once; payMaster goes through the arithmetic allocation,
+// roundRobin repeats the former loop that paid one premium per child per pass until the amount ran out
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class MasterPrepaymentBenchmark {
+
+    private static final int FLEET_SIZE = 5_000;
+
+    @Param({"1", "10"})
+    public int years;
+
+    private InsuranceCompany company;
+    private MasterVehicleContract master;
+    private List<SingleVehicleContract> children;
+    private int prepayment;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+
+        company = new InsuranceCompany(SyntheticData.START);
+        master = SyntheticData.fleet(company, 0, FLEET_SIZE, 0);
+        children = master.getActiveChildContracts();
+
+        long yearly = 0;
+        for ( SingleVehicleContract child : children ) {
+            ContractPaymentData data = child.getContractPaymentData();
+            yearly += (long) data.getPremium() * (12 / data.getPremiumPaymentFrequency().getValueInMonths());
+        }
+        prepayment = Math.toIntExact(yearly * years);
+    }
+
+    @Benchmark
+    public int payMaster() {
+        company.getHandler().pay(master, prepayment);
+        return master.getOutstandingBalance();
+    }
+
+    @Benchmark
+    public int roundRobin() {
+
+        int amount = prepayment;
+        for ( SingleVehicleContract child : children ) {
+            ContractPaymentData data = child.getContractPaymentData();
+            int balance = data.getOutstandingBalance();
+            if ( balance > 0 ) {
+                int payment = Math.min(amount, balance);
+                data.setOutstandingBalance(balance - payment);
+                amount -= payment;
+                if ( amount == 0 ) {
+                    break;
+                }
+            }
+        }
+
+        while ( amount > 0 ) {
+            for ( SingleVehicleContract child : children ) {
+                ContractPaymentData data = child.getContractPaymentData();
+                int payment = Math.min(amount, data.getPremium());
+                data.setOutstandingBalance(data.getOutstandingBalance() - payment);
+                amount -= payment;
+                if ( amount == 0 ) {
+                    break;
+                }
+            }
+        }
+        return master.getOutstandingBalance();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class PaymentBenchmark {
+
+    private static final int CONTRACTS = 10_000;
+
+    @Param({"10", "1000"})
+    public int fleetSize;
+
+    private InsuranceCompany company;
+    private List<SingleVehicleContract> contracts;
+    private MasterVehicleContract master;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        company = SyntheticData.book(CONTRACTS, 0);
+        contracts = SyntheticData.vehicleContracts(company, CONTRACTS);
+        master = SyntheticData.fleet(company, 0, fleetSize, CONTRACTS);
+        next = 0;
+    }
+
+    @Benchmark
+    public int paySingle() {
+        SingleVehicleContract contract = contracts.get(next++ % CONTRACTS);
+        company.getHandler().pay(contract, contract.getContractPaymentData().getPremium());
+        return contract.getContractPaymentData().getOutstandingBalance();
+    }
+
+    // roughly one premium per child, so every payment walks the whole fleet once
+    @Benchmark
+    public int payMaster() {
+        company.getHandler().pay(master, 200 * fleetSize);
+        return master.getOutstandingBalance();
+    }
+}
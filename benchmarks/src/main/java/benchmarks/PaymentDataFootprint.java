@@ -0,0 +1,71 @@
+package benchmarks;
+
+import payment.ColumnarPaymentData;
+import payment.ContractPaymentData;
+import payment.PaymentDataColumns;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+
+// retained heap per contract for each payment data mode; run with a heap large enough for 10M entries:
+// java --enable-preview -Xmx4g -cp benchmarks/target/benchmarks.jar benchmarks.PaymentDataFootprint 1000000 10000000
+public final class PaymentDataFootprint {
+
+    private PaymentDataFootprint() {
+    }
+
+    public static void main(String[] args) {
+
+        int[] sizes = args.length == 0 ? new int[] {1_000_000, 10_000_000} : new int[args.length];
+        for ( int i = 0; i < args.length; i++ ) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%-28s %12s %12s %10s%n", "mode", "contracts", "MB", "B/contract");
+        for ( int size : sizes ) {
+            report("object, shared times", size, measure(size, Mode.OBJECT_SHARED));
+            report("object, distinct times", size, measure(size, Mode.OBJECT_DISTINCT));
+            report("columnar", size, measure(size, Mode.COLUMNAR));
+        }
+    }
+
+    private enum Mode { OBJECT_SHARED, OBJECT_DISTINCT, COLUMNAR }
+
+    // the array of references is allocated before the baseline, so only the entries are counted
+    private static long measure(int size, Mode mode) {
+
+        ContractPaymentData[] entries = new ContractPaymentData[size];
+        long before = usedHeap();
+
+        PaymentDataColumns columns = mode == Mode.COLUMNAR ? new PaymentDataColumns(size) : null;
+        for ( int i = 0; i < size; i++ ) {
+            PremiumPaymentFrequency frequency = SyntheticData.frequency(i);
+            // billing cohorts hand every contract of a cohort the same LocalDateTime instance
+            LocalDateTime next = mode == Mode.OBJECT_DISTINCT
+                    ? SyntheticData.START.plusSeconds(i)
+                    : SyntheticData.START;
+            entries[i] = columns == null
+                    ? new ContractPaymentData(100, frequency, next, 0)
+                    : new ColumnarPaymentData(columns, 100, frequency, next, 0);
+        }
+
+        long used = usedHeap() - before;
+        if ( entries[size - 1].getPremium() != 100 ) {
+            throw new IllegalStateException();
+        }
+        return used;
+    }
+
+    private static long usedHeap() {
+
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ ) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String mode, int size, long bytes) {
+        System.out.printf("%-28s %,12d %,12.1f %10.1f%n", mode, size, bytes / 1e6, (double) bytes / size);
+    }
+}
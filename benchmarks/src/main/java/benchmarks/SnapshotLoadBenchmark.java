@@ -0,0 +1,90 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.CompanySnapshot;
+import persistence.Journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// the same book restored from a snapshot and rebuilt by replaying the journal that produced it;
+// the book is issued, billed for a year and partly paid, with a few fleets on top
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx3g"})
+public class SnapshotLoadBenchmark {
+
+    private static final int FLEETS = 10;
+    private static final int FLEET_SIZE = 100;
+
+    @Param({"10000", "100000"})
+    public int bookSize;
+
+    private Path snapshotPath;
+    private Path journalPath;
+
+    @Setup(Level.Trial)
+    public void writeBook() throws IOException {
+
+        snapshotPath = Files.createTempFile("company", ".snapshot");
+        journalPath = Files.createTempFile("company", ".journal");
+
+        InsuranceCompany company = new InsuranceCompany(SyntheticData.START);
+        try ( Journal journal = new Journal(journalPath, false) ) {
+            company.setJournal(journal);
+            for ( int i = 0; i < bookSize; i++ ) {
+                SyntheticData.insureVehicle(company, i);
+                SyntheticData.insurePersons(company, i, 2);
+            }
+            for ( int i = 0; i < FLEETS; i++ ) {
+                SyntheticData.fleet(company, i, FLEET_SIZE, bookSize + (long) i * FLEET_SIZE);
+            }
+            for ( int month = 1; month <= 12; month++ ) {
+                company.setCurrentTime(SyntheticData.START.plusMonths(month));
+                company.chargePremiumsOnContracts();
+            }
+            for ( int i = 0; i < bookSize; i += 3 ) {
+                company.getHandler().pay(company.getContract(SyntheticData.contractNumber("V", i)), 10);
+            }
+        }
+        company.setJournal(null);
+        CompanySnapshot.write(company, snapshotPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.delete(snapshotPath);
+        Files.delete(journalPath);
+    }
+
+    @Benchmark
+    public InsuranceCompany readSnapshot() {
+        return CompanySnapshot.read(snapshotPath);
+    }
+
+    @Benchmark
+    public InsuranceCompany replayJournal() {
+
+        InsuranceCompany company = new InsuranceCompany(SyntheticData.START);
+        Journal.replay(journalPath, company);
+        return company;
+    }
+}
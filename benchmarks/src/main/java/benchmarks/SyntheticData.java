@@ -0,0 +1,170 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import company.PremiumRules;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class SyntheticData {
+
+    public static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final long PLATES = 78_364_164_096L; // 36^7
+    private static final long PLATE_STRIDE = 2_654_435_761L; // coprime with 36^7, spreads consecutive indexes
+    private static final long BIRTH_NUMBERS = 46L * 12 * 28 * 2 * 100;
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private SyntheticData() {
+    }
+
+    // 10-digit birth numbers: 46 years x 12 months x 28 days x 2 sexes x 100 serials
+    public static String birthNumber(long index) {
+
+        if ( index < 0 || index >= BIRTH_NUMBERS ) {
+            throw new IllegalArgumentException("index out of range");
+        }
+
+        int serial = (int) (index % 100);
+        long date = index / 100;
+        int day = (int) (date % 28) + 1;
+        date /= 28;
+        int month = (int) (date % 12) + 1 + (date / 12 % 2 == 0 ? 0 : 50);
+        int year = 54 + (int) (date / 24);
+
+        char[] digits = new char[10];
+        put(digits, 0, year);
+        put(digits, 2, month);
+        put(digits, 4, day);
+        put(digits, 6, serial);
+
+        // even positions add and odd ones subtract; when the check digit would have to be 10,
+        // the ninth digit becomes 1 instead of 0, which shifts the residue to 0
+        int sum = 0;
+        for ( int i = 0; i < 8; i++ ) {
+            sum += (i % 2 == 0) ? digits[i] - '0' : -(digits[i] - '0');
+        }
+        int check = Math.floorMod(sum, 11);
+        digits[8] = check == 10 ? '1' : '0';
+        digits[9] = (char) ('0' + (check == 10 ? 0 : check));
+        return new String(digits);
+    }
+
+    public static String registrationNumber(long index) {
+
+        if ( index < 0 || index >= 100_000_000L ) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        return String.format("%08d", index);
+    }
+
+    public static String licensePlate(long index) {
+
+        if ( index < 0 || index >= PLATES ) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        return Vehicle.decodeLicensePlate(Math.floorMod(index * PLATE_STRIDE, PLATES));
+    }
+
+    public static Person naturalPerson(long index) {
+        return new Person(birthNumber(index));
+    }
+
+    public static Person legalPerson(long index) {
+        return new Person(registrationNumber(index));
+    }
+
+    public static Vehicle vehicle(long index) {
+        return new Vehicle(licensePlate(index), 10_000 + (int) (index % 90_000));
+    }
+
+    public static PremiumPaymentFrequency frequency(long index) {
+        return FREQUENCIES[(int) (index % FREQUENCIES.length)];
+    }
+
+    public static int vehiclePremium(Vehicle vehicle, PremiumPaymentFrequency frequency) {
+        return PremiumRules.minimumVehiclePremium(vehicle.getOriginalValue(), frequency);
+    }
+
+    public static int travelPremium(int persons, PremiumPaymentFrequency frequency) {
+        return PremiumRules.minimumTravelPremium(persons, frequency);
+    }
+
+    public static String contractNumber(String prefix, long index) {
+        return prefix + index;
+    }
+
+    public static SingleVehicleContract insureVehicle(InsuranceCompany company, long index) {
+
+        Person holder = company.getPersonRegistry().register(naturalPerson(index % 1_000_000));
+        Vehicle vehicle = vehicle(index);
+        PremiumPaymentFrequency frequency = frequency(index);
+        return company.insureVehicle(contractNumber("V", index), null, holder,
+                vehiclePremium(vehicle, frequency), frequency, vehicle);
+    }
+
+    public static TravelContract insurePersons(InsuranceCompany company, long index, int persons) {
+
+        Set<Person> insured = new LinkedHashSet<>();
+        for ( int i = 0; i < persons; i++ ) {
+            insured.add(company.getPersonRegistry().register(naturalPerson((index * persons + i) % 1_000_000)));
+        }
+        Person holder = insured.iterator().next();
+        PremiumPaymentFrequency frequency = frequency(index);
+        return company.insurePersons(contractNumber("T", index), holder,
+                travelPremium(persons, frequency), frequency, insured);
+    }
+
+    // a master owned by a legal person with fleetSize children; vehicle indexes start at firstVehicle
+    public static MasterVehicleContract fleet(InsuranceCompany company, long index, int fleetSize, long firstVehicle) {
+
+        Person holder = company.getPersonRegistry().register(legalPerson(index));
+        MasterVehicleContract master = company.createMasterVehicleContract(contractNumber("M", index), null, holder);
+
+        for ( int i = 0; i < fleetSize; i++ ) {
+            long vehicleIndex = firstVehicle + i;
+            Vehicle vehicle = vehicle(vehicleIndex);
+            PremiumPaymentFrequency frequency = frequency(vehicleIndex);
+            SingleVehicleContract child = company.insureVehicle(contractNumber("V", vehicleIndex), null, holder,
+                    vehiclePremium(vehicle, frequency), frequency, vehicle);
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        }
+        return master;
+    }
+
+    // vehicle contracts 0..vehicles-1 and travel contracts 0..travels-1 with two insured persons each
+    public static InsuranceCompany book(int vehicles, int travels) {
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        for ( int i = 0; i < vehicles; i++ ) {
+            insureVehicle(company, i);
+        }
+        for ( int i = 0; i < travels; i++ ) {
+            insurePersons(company, i, 2);
+        }
+        return company;
+    }
+
+    public static List<SingleVehicleContract> vehicleContracts(InsuranceCompany company, int count) {
+
+        List<SingleVehicleContract> result = new ArrayList<>(count);
+        for ( int i = 0; i < count; i++ ) {
+            result.add((SingleVehicleContract) company.getContract(contractNumber("V", i)));
+        }
+        return result;
+    }
+
+    private static void put(char[] digits, int offset, int value) {
+        digits[offset] = (char) ('0' + value / 10);
+        digits[offset + 1] = (char) ('0' + value % 10);
+    }
+}
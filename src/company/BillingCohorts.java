@@ -0,0 +1,95 @@
+package company;
+
+import contracts.AbstractContract;
+import payment.ContractPaymentData;
+import payment.PaymentHandler;
+import payment.PremiumAccrual;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+final class BillingCohorts {
+
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private BillingCohorts() {
+    }
+
+    // contracts sharing a frequency and next payment time accrue the same periods and advance to the same time,
+    // so both are computed once per cohort and every member gets the same LocalDateTime instance
+    static IntSummaryStatistics charge(List<? extends AbstractContract> contracts, LocalDateTime currentTime,
+                                       PaymentHandler handler, ForkJoinPool pool) {
+
+        List<Map<LocalDateTime, Cohort>> cohorts = new ArrayList<>(FREQUENCIES.length);
+        for(int i = 0; i < FREQUENCIES.length; i++) {
+            cohorts.add(new HashMap<>());
+        }
+
+        int size = contracts.size();
+        AbstractContract[] members = new AbstractContract[size];
+        Cohort[] assigned = new Cohort[size];
+        Cohort last = null;
+
+        for(int i = 0; i < size; i++) {
+            AbstractContract contract = contracts.get(i);
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            PremiumPaymentFrequency frequency = paymentData.getPremiumPaymentFrequency();
+            LocalDateTime next = paymentData.getNextPaymentTime();
+
+            if(last == null || last.nextPaymentTime != next || last.frequency != frequency) {
+                last = cohorts.get(frequency.ordinal()).computeIfAbsent(next, t -> new Cohort(frequency, t, currentTime));
+            }
+            members[i] = contract;
+            assigned[i] = last;
+        }
+
+        if(pool == null) {
+            IntSummaryStatistics accrued = new IntSummaryStatistics();
+            for(int i = 0; i < size; i++) {
+                int periods = apply(handler, members[i], assigned[i]);
+                if(periods > 0) {
+                    accrued.accept(periods);
+                }
+            }
+            return accrued;
+        }
+
+        return pool.submit(() -> IntStream.range(0, size).parallel()
+                .map(i -> apply(handler, members[i], assigned[i]))
+                .filter(periods -> periods > 0)
+                .summaryStatistics()).join();
+    }
+
+    private static int apply(PaymentHandler handler, AbstractContract contract, Cohort cohort) {
+
+        if(cohort.periods > 0) {
+            handler.applyDuePremiums(contract, cohort.periods, cohort.advancedPaymentTime);
+        }
+        return cohort.periods;
+    }
+
+    private static final class Cohort {
+
+        private final PremiumPaymentFrequency frequency;
+        private final LocalDateTime nextPaymentTime;
+        private final int periods;
+        private final LocalDateTime advancedPaymentTime;
+
+        private Cohort(PremiumPaymentFrequency frequency, LocalDateTime nextPaymentTime, LocalDateTime currentTime) {
+
+            this.frequency = frequency;
+            this.nextPaymentTime = nextPaymentTime;
+            this.periods = PremiumAccrual.duePeriods(nextPaymentTime, frequency, currentTime);
+            this.advancedPaymentTime = periods > 0
+                    ? PremiumAccrual.advance(nextPaymentTime, frequency, periods)
+                    : nextPaymentTime;
+        }
+    }
+}
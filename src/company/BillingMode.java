@@ -0,0 +1,6 @@
+package company;
+
+public enum BillingMode {
+
+    SEQUENTIAL, PARALLEL
+}
@@ -0,0 +1,96 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+class BillingScheduler {
+
+    private final PriorityQueue<Entry> queue;
+    private final Map<AbstractContract, LocalDateTime> scheduled;
+
+    BillingScheduler() {
+        this.queue = new PriorityQueue<>();
+        this.scheduled = new IdentityHashMap<>();
+    }
+
+    void schedule(AbstractContract contract) {
+
+        LocalDateTime dueTime = nextDueTime(contract);
+        if ( dueTime == null ) {
+            scheduled.remove(contract);
+            return;
+        }
+
+        if ( dueTime.equals(scheduled.get(contract)) ) {
+            return;
+        }
+        scheduled.put(contract, dueTime);
+        queue.add(new Entry(dueTime, contract));
+    }
+
+    void childAdded(MasterVehicleContract master, SingleVehicleContract child) {
+
+        LocalDateTime dueTime = scheduled.get(master);
+        if ( dueTime == null ) {
+            schedule(master);
+            return;
+        }
+
+        LocalDateTime childTime = child.getContractPaymentData().getNextPaymentTime();
+        if ( childTime.isBefore(dueTime) ) {
+            scheduled.put(master, childTime);
+            queue.add(new Entry(childTime, master));
+        }
+    }
+
+    void unschedule(AbstractContract contract) {
+        scheduled.remove(contract);
+    }
+
+    List<AbstractContract> drainDue(LocalDateTime currentTime) {
+
+        List<AbstractContract> due = new ArrayList<>();
+
+        while ( !queue.isEmpty() && !queue.peek().dueTime.isAfter(currentTime) ) {
+            Entry entry = queue.poll();
+            if ( scheduled.get(entry.contract) != entry.dueTime ) {
+                continue;
+            }
+            scheduled.remove(entry.contract);
+            due.add(entry.contract);
+        }
+        return due;
+    }
+
+    private static LocalDateTime nextDueTime(AbstractContract contract) {
+
+        if ( !(contract instanceof MasterVehicleContract master) ) {
+            return contract.getContractPaymentData().getNextPaymentTime();
+        }
+
+        LocalDateTime dueTime = null;
+        for ( SingleVehicleContract child : master.getChildContracts() ) {
+            LocalDateTime childTime = child.getContractPaymentData().getNextPaymentTime();
+            if ( dueTime == null || childTime.isBefore(dueTime) ) {
+                dueTime = childTime;
+            }
+        }
+        return dueTime;
+    }
+
+    private record Entry(LocalDateTime dueTime, AbstractContract contract) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            return dueTime.compareTo(other.dueTime);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Set;
+
+public class ClaimRequest {
+
+    private final AbstractContract contract;
+    private final int expectedDamages;
+    private final Set<Person> affectedPersons;
+
+    public ClaimRequest(SingleVehicleContract contract, int expectedDamages) {
+
+        this.contract = contract;
+        this.expectedDamages = expectedDamages;
+        this.affectedPersons = null;
+    }
+
+    public ClaimRequest(TravelContract contract, Set<Person> affectedPersons) {
+
+        this.contract = contract;
+        this.expectedDamages = 0;
+        this.affectedPersons = affectedPersons;
+    }
+
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    public int getExpectedDamages() {
+        return expectedDamages;
+    }
+
+    public Set<Person> getAffectedPersons() {
+        return affectedPersons;
+    }
+}
@@ -0,0 +1,37 @@
+package company;
+
+public class ClaimResult {
+
+    private final ClaimRequest request;
+    private final ClaimStatus status;
+    private final int paidOutAmount;
+    private final String rejectionReason;
+
+    public ClaimResult(ClaimRequest request, ClaimStatus status, int paidOutAmount, String rejectionReason) {
+
+        if(status == null) {
+            throw new IllegalArgumentException("status can't be null");
+        }
+
+        this.request = request;
+        this.status = status;
+        this.paidOutAmount = paidOutAmount;
+        this.rejectionReason = rejectionReason;
+    }
+
+    public ClaimRequest getRequest() {
+        return request;
+    }
+
+    public ClaimStatus getStatus() {
+        return status;
+    }
+
+    public int getPaidOutAmount() {
+        return paidOutAmount;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+}
@@ -0,0 +1,6 @@
+package company;
+
+public enum ClaimStatus {
+
+    PAID, PAID_AND_DEACTIVATED, REJECTED
+}
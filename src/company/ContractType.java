@@ -0,0 +1,21 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.TravelContract;
+
+public enum ContractType {
+
+    SINGLE_VEHICLE, MASTER_VEHICLE, TRAVEL;
+
+    public static ContractType of(AbstractContract contract) {
+
+        if(contract instanceof MasterVehicleContract) {
+            return MASTER_VEHICLE;
+        }
+        if(contract instanceof TravelContract) {
+            return TRAVEL;
+        }
+        return SINGLE_VEHICLE;
+    }
+}
@@ -0,0 +1,260 @@
+package company;
+
+import contracts.AbstractContract;
+import payment.ContractPaymentData;
+import persistence.Journal;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+public class DelinquencyIndex {
+
+    public static final int MAX_ARREARS = 12;
+
+    // contracts are keyed by identity, as contract equality compares beneficiaries that can change;
+    // contracts with no arrears are not stored, so memory follows the number of delinquent contracts
+    private final Map<AbstractContract, Integer> arrears;
+    private final List<Set<AbstractContract>> buckets;
+    private final Queue<AbstractContract> dunning;
+    // the latest threshold crossing of each contract; queued crossings that no longer match it are stale
+    private final Map<AbstractContract, LocalDateTime> crossedAt;
+    private final Queue<Crossing> pendingDeactivation;
+    private volatile int dunningThreshold;
+    private volatile Duration gracePeriod;
+    private final InsuranceCompany insurer;
+
+    public DelinquencyIndex() {
+        this(null);
+    }
+
+    // with an insurer, setting changes are journaled and exclusive like time changes, so a billing run
+    // applies and journals either the old or the new setting
+    public DelinquencyIndex(InsuranceCompany insurer) {
+
+        this.arrears = new IdentityHashMap<>();
+        this.buckets = new ArrayList<>();
+        for(int i = 0; i <= MAX_ARREARS; i++) {
+            buckets.add(Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        this.dunning = new ArrayDeque<>();
+        this.crossedAt = new IdentityHashMap<>();
+        this.pendingDeactivation = new ArrayDeque<>();
+        this.dunningThreshold = 3;
+        this.insurer = insurer;
+    }
+
+    public synchronized int getArrears(AbstractContract contract) {
+        return contract == null ? 0 : arrears.getOrDefault(contract, 0);
+    }
+
+    // a copy, since payments keep moving contracts between buckets
+    public synchronized Set<AbstractContract> getContracts(int arrears) {
+
+        if(arrears < 1 || arrears > MAX_ARREARS) {
+            throw new IllegalArgumentException("arrears must be between 1 and " + MAX_ARREARS);
+        }
+        Set<AbstractContract> contracts = Collections.newSetFromMap(new IdentityHashMap<>());
+        contracts.addAll(buckets.get(arrears));
+        return Collections.unmodifiableSet(contracts);
+    }
+
+    public int getDunningThreshold() {
+        return dunningThreshold;
+    }
+
+    // only later crossings are affected; contracts already past a new threshold are not re-queued
+    public void setDunningThreshold(int dunningThreshold) {
+
+        if(dunningThreshold < 1 || dunningThreshold > MAX_ARREARS) {
+            throw new IllegalArgumentException("dunningThreshold must be between 1 and " + MAX_ARREARS);
+        }
+        changeSetting(() -> this.dunningThreshold = dunningThreshold,
+                journal -> journal.setDunningThreshold(dunningThreshold));
+    }
+
+    public Duration getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public void setGracePeriod(Duration gracePeriod) {
+
+        if(gracePeriod != null && gracePeriod.isNegative()) {
+            throw new IllegalArgumentException("gracePeriod can't be negative");
+        }
+        changeSetting(() -> this.gracePeriod = gracePeriod, journal -> journal.setGracePeriod(gracePeriod));
+    }
+
+    // contracts crossed the threshold but not yet polled, in crossing order
+    public synchronized List<AbstractContract> getPendingDunning() {
+        return new ArrayList<>(dunning);
+    }
+
+    // crossings still waiting for their grace period, oldest first; stale ones are left out
+    public synchronized List<Crossing> getPendingCrossings() {
+
+        List<Crossing> pending = new ArrayList<>();
+        for(Crossing crossing : pendingDeactivation) {
+            if(crossedAt.get(crossing.contract) == crossing.time) {
+                pending.add(crossing);
+            }
+        }
+        return pending;
+    }
+
+    // replaces the queues rebuilt while a restored book's contracts were indexed with the ones it was saved with
+    public synchronized void restorePending(List<AbstractContract> dunning, List<Crossing> crossings) {
+
+        if(dunning == null || crossings == null) {
+            throw new IllegalArgumentException("dunning or crossings can't be null");
+        }
+
+        this.dunning.clear();
+        this.dunning.addAll(dunning);
+        crossedAt.clear();
+        pendingDeactivation.clear();
+        for(Crossing crossing : crossings) {
+            crossedAt.put(crossing.contract, crossing.time);
+            pendingDeactivation.add(crossing);
+        }
+    }
+
+    public synchronized List<AbstractContract> pollDunning() {
+
+        Set<AbstractContract> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<AbstractContract> due = new ArrayList<>();
+        AbstractContract contract;
+
+        while((contract = dunning.poll()) != null) {
+            if(seen.add(contract) && contract.isActive() && getArrears(contract) >= dunningThreshold) {
+                due.add(contract);
+            }
+        }
+        return due;
+    }
+
+    void update(AbstractContract contract, LocalDateTime currentTime) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if(paymentData == null) {
+            return;
+        }
+
+        int balance = paymentData.getOutstandingBalance();
+        int level = balance <= 0 ? 0 : Math.min(MAX_ARREARS, balance / paymentData.getPremium());
+
+        synchronized(this) {
+            Integer old = arrears.get(contract);
+            int previous = old == null ? 0 : old;
+            if(previous == level) {
+                return;
+            }
+
+            buckets.get(previous).remove(contract);
+            if(level == 0) {
+                arrears.remove(contract);
+            } else {
+                arrears.put(contract, level);
+                buckets.get(level).add(contract);
+            }
+
+            int threshold = dunningThreshold;
+            if(previous < threshold && level >= threshold && contract.isActive()) {
+                dunning.add(contract);
+                if(gracePeriod != null) {
+                    crossedAt.put(contract, currentTime);
+                    pendingDeactivation.add(new Crossing(contract, currentTime));
+                }
+            } else if(level < threshold) {
+                crossedAt.remove(contract);
+            }
+        }
+    }
+
+    synchronized void unregister(AbstractContract contract) {
+
+        Integer old = arrears.remove(contract);
+        if(old != null) {
+            buckets.get(old).remove(contract);
+        }
+        crossedAt.remove(contract);
+    }
+
+    List<AbstractContract> deactivateExpired(LocalDateTime currentTime) {
+
+        List<AbstractContract> expired = new ArrayList<>();
+        Duration grace = gracePeriod;
+
+        synchronized(this) {
+            if(grace == null) {
+                pendingDeactivation.clear();
+                crossedAt.clear();
+                return expired;
+            }
+
+            Crossing crossing;
+            while((crossing = pendingDeactivation.peek()) != null
+                    && !crossing.time.plus(grace).isAfter(currentTime)) {
+                pendingDeactivation.poll();
+                AbstractContract contract = crossing.contract;
+                if(crossedAt.get(contract) != crossing.time || getArrears(contract) < dunningThreshold) {
+                    continue;
+                }
+                crossedAt.remove(contract);
+                expired.add(contract);
+            }
+        }
+
+        // deactivation calls back into the company, so it runs outside the index's monitor
+        List<AbstractContract> deactivated = new ArrayList<>();
+        for(AbstractContract contract : expired) {
+            if(contract.isActive()) {
+                contract.setInactive();
+                deactivated.add(contract);
+            }
+        }
+        return deactivated;
+    }
+
+    private void changeSetting(Runnable change, ToLongFunction<Journal> record) {
+
+        if(insurer == null) {
+            change.run();
+            return;
+        }
+
+        long seq = 0;
+        insurer.getHandler().getBookLock().writeLock().lock();
+        try {
+            change.run();
+            Journal journal = insurer.getJournal();
+            if(journal != null) {
+                seq = record.applyAsLong(journal);
+            }
+        } finally {
+            insurer.getHandler().getBookLock().writeLock().unlock();
+        }
+
+        Journal journal = insurer.getJournal();
+        if(journal != null && seq > 0) {
+            journal.awaitCommit(seq);
+        }
+    }
+
+    public record Crossing(AbstractContract contract, LocalDateTime time) {
+
+        public Crossing {
+            if(contract == null || time == null) {
+                throw new IllegalArgumentException("contract or time can't be null");
+            }
+        }
+    }
+}
@@ -4,21 +4,59 @@ import contracts.*;
 import objects.LegalForm;
 import objects.Person;
 import objects.Vehicle;
+import payment.ColumnarPaymentData;
 import payment.ContractPaymentData;
+import payment.PaymentDataColumns;
 import payment.PaymentHandler;
 import payment.PremiumPaymentFrequency;
+import metrics.BillingRunEvent;
+import metrics.Metrics;
+import persistence.Journal;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.IntSummaryStatistics;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class InsuranceCompany {
 
+    private static final int CLAIM_CHUNK = 4096;
+
     private final Set<AbstractContract> contracts;
+    private final Map<String, AbstractContract> contractIndex;
+    private final BillingScheduler billingScheduler;
+    private final PaymentDataColumns paymentDataColumns;
+    private final PersonRegistry personRegistry;
+    private final VehicleIndex vehicleIndex;
+    private final PersonContractIndex personContractIndex;
+    private final PortfolioAggregates aggregates;
+    private final DelinquencyIndex delinquencyIndex;
     private final PaymentHandler handler;
-    private LocalDateTime currentTime;
+    private final Metrics metrics;
+    private final ReentrantLock registrationLock;
+    private volatile LocalDateTime currentTime;
+    private BillingMode billingMode;
+    private ForkJoinPool billingPool;
+    private Journal journal;
+    private long journalPosition;
 
     public InsuranceCompany(LocalDateTime currentTime) {
+        this(currentTime, null);
+    }
+
+    public InsuranceCompany(LocalDateTime currentTime, PaymentDataColumns paymentDataColumns) {
 
         if(currentTime == null) {
             throw new IllegalArgumentException("currentTime cant be null");
@@ -26,7 +64,19 @@ public class InsuranceCompany {
 
         this.currentTime = currentTime;
         this.contracts = new LinkedHashSet<>();
+        this.contractIndex = new ConcurrentHashMap<>();
+        this.billingScheduler = new BillingScheduler();
+        this.paymentDataColumns = paymentDataColumns;
+        this.personRegistry = new PersonRegistry();
+        this.vehicleIndex = new VehicleIndex();
+        this.personContractIndex = new PersonContractIndex();
+        this.aggregates = new PortfolioAggregates();
+        this.delinquencyIndex = new DelinquencyIndex(this);
+        this.metrics = new Metrics();
+        this.registrationLock = new ReentrantLock();
         this.handler = new PaymentHandler(this);
+        this.billingMode = BillingMode.SEQUENTIAL;
+        this.billingPool = ForkJoinPool.commonPool();
     }
 
     public LocalDateTime getCurrentTime() {
@@ -38,7 +88,113 @@ public class InsuranceCompany {
         if(currentTime == null) {
             throw new IllegalArgumentException("currentTime cant be null");
         }
-        this.currentTime = currentTime;
+
+        // exclusive, so a billing run or payment is journaled entirely before or after the time change
+        long seq = 0;
+        handler.getBookLock().writeLock().lock();
+        try {
+            this.currentTime = currentTime;
+            if(journal != null) {
+                seq = journal.setCurrentTime(currentTime);
+            }
+        } finally {
+            handler.getBookLock().writeLock().unlock();
+        }
+        awaitCommit(seq);
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    // byte offset in the journal up to which its records are already reflected in this book
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    public void setJournalPosition(long journalPosition) {
+
+        if(journalPosition < 0) {
+            throw new IllegalArgumentException("journalPosition can't be negative");
+        }
+        this.journalPosition = journalPosition;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public PersonRegistry getPersonRegistry() {
+        return personRegistry;
+    }
+
+    public VehicleIndex getVehicleIndex() {
+        return vehicleIndex;
+    }
+
+    public PersonContractIndex getPersonContractIndex() {
+        return personContractIndex;
+    }
+
+    public PortfolioAggregates getAggregates() {
+        return aggregates;
+    }
+
+    public DelinquencyIndex getDelinquencyIndex() {
+        return delinquencyIndex;
+    }
+
+    public boolean verifyAggregates() {
+
+        PortfolioAggregates recomputed = new PortfolioAggregates();
+        lockRegistration();
+        try {
+            for(AbstractContract contract : contracts) {
+                recomputed.register(contract);
+                if(contract instanceof MasterVehicleContract master) {
+                    master.getChildContracts().forEach(recomputed::register);
+                }
+            }
+        } finally {
+            unlockRegistration();
+        }
+        return aggregates.sameTotals(recomputed);
+    }
+
+    public SingleVehicleContract findContractByLicensePlate(String licensePlate) {
+        return vehicleIndex.find(licensePlate);
+    }
+
+    public PaymentDataColumns getPaymentDataColumns() {
+        return paymentDataColumns;
+    }
+
+    public BillingMode getBillingMode() {
+        return billingMode;
+    }
+
+    public void setBillingMode(BillingMode billingMode) {
+
+        if(billingMode == null) {
+            throw new IllegalArgumentException("billingMode can't be null");
+        }
+        this.billingMode = billingMode;
+    }
+
+    public void setBillingPool(ForkJoinPool billingPool) {
+
+        if(billingPool == null) {
+            throw new IllegalArgumentException("billingPool can't be null");
+        }
+        this.billingPool = billingPool;
+    }
+
+    ForkJoinPool getBillingPool() {
+        return billingPool;
     }
 
     public Set<AbstractContract> getContracts() {
@@ -49,6 +205,247 @@ public class InsuranceCompany {
         return handler;
     }
 
+    public AbstractContract getContract(String contractNumber) {
+        return contractIndex.get(contractNumber);
+    }
+
+    public boolean containsContract(String contractNumber) {
+        return contractIndex.containsKey(contractNumber);
+    }
+
+    public AbstractContract removeContract(String contractNumber) {
+
+        AbstractContract contract;
+        long seq = 0;
+        handler.getBookLock().writeLock().lock();
+        try {
+            contract = contractIndex.get(contractNumber);
+            if(contract == null) {
+                return null;
+            }
+
+            if(!contracts.contains(contract)) {
+                throw new InvalidContractException("child contracts can't be removed from MasterContract");
+            }
+
+            if(contract instanceof MasterVehicleContract master) {
+                for(SingleVehicleContract child : master.getChildContracts()) {
+                    contractIndex.remove(child.getContractNumber());
+                    vehicleIndex.unregister(child);
+                    personContractIndex.unregister(child);
+                    aggregates.unregister(child);
+                    delinquencyIndex.unregister(child);
+                }
+            }
+            if(contract instanceof SingleVehicleContract single) {
+                vehicleIndex.unregister(single);
+            }
+
+            contractIndex.remove(contractNumber);
+            personContractIndex.unregister(contract);
+            aggregates.unregister(contract);
+            delinquencyIndex.unregister(contract);
+            billingScheduler.unschedule(contract);
+            contracts.remove(contract);
+            contract.getPolicyHolder().getContracts().remove(contract);
+
+            if(journal != null) {
+                seq = journal.removeContract(contractNumber);
+            }
+        } finally {
+            handler.getBookLock().writeLock().unlock();
+        }
+        awaitCommit(seq);
+        return contract;
+    }
+
+    public void restoreContract(AbstractContract contract) {
+
+        if(contract == null) {
+            throw new IllegalArgumentException("contract can't be null");
+        }
+
+        if(contract.getInsurer() != this) {
+            throw new InvalidContractException("contract belongs to another insurer");
+        }
+
+        lockRegistration();
+        try {
+            checkUniqueContractNumber(contract.getContractNumber());
+            registerContract(contract);
+        } finally {
+            unlockRegistration();
+        }
+    }
+
+    // attaches a restored child straight to its restored master, without going through the top-level book
+    public void restoreChildContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract childContract) {
+
+        if(masterVehicleContract == null || childContract == null) {
+            throw new IllegalArgumentException("contracts can't be null");
+        }
+
+        lockRegistration();
+        try {
+            if(!isRegistered(masterVehicleContract) || childContract.getInsurer() != this) {
+                throw new InvalidContractException("contracts don't belong to insurer");
+            }
+
+            checkUniqueContractNumber(childContract.getContractNumber());
+            checkRegisteredPersons(childContract);
+            indexContract(childContract);
+            masterVehicleContract.requestAdditionOfChildContract(childContract);
+        } finally {
+            unlockRegistration();
+        }
+    }
+
+    private void checkUniqueContractNumber(String contractNumber) {
+
+        if(contractIndex.containsKey(contractNumber)) {
+            throw new IllegalArgumentException("contractNumber already exist");
+        }
+    }
+
+    private ContractPaymentData newPaymentData(int premium, PremiumPaymentFrequency paymentFrequency) {
+
+        if(paymentDataColumns == null) {
+            return new ContractPaymentData(premium, paymentFrequency, currentTime, 0);
+        }
+        return new ColumnarPaymentData(paymentDataColumns, premium, paymentFrequency, currentTime, 0);
+    }
+
+    // registration holds the read side, so billing runs and moves are excluded but payments are not, together with
+    // the registration lock, which keeps the contract set, the indexes and the billing heap consistent
+    private void lockRegistration() {
+        handler.getBookLock().readLock().lock();
+        registrationLock.lock();
+    }
+
+    private void unlockRegistration() {
+        registrationLock.unlock();
+        handler.getBookLock().readLock().unlock();
+    }
+
+    private boolean isRegistered(AbstractContract contract) {
+        return contract != null && contractIndex.get(contract.getContractNumber()) == contract;
+    }
+
+    private void registerContract(AbstractContract contract) {
+
+        checkRegisteredPersons(contract);
+        contracts.add(contract);
+        contract.getPolicyHolder().addContract(contract);
+        billingScheduler.schedule(contract);
+        indexContract(contract);
+    }
+
+    // the registry keeps one instance per id; a second instance would split payouts and contract lists, so issuance
+    // swaps in the registered one and restored contracts, which already hold theirs, are checked instead
+    private Person intern(Person person) {
+        return person == null ? null : personRegistry.register(person);
+    }
+
+    private void checkRegisteredPersons(AbstractContract contract) {
+
+        checkRegisteredPerson(contract.getPolicyHolder());
+        if(contract instanceof AbstractVehicleContract vehicleContract) {
+            checkRegisteredPerson(vehicleContract.getBeneficiary());
+        }
+        if(contract instanceof TravelContract travelContract) {
+            for(Person p : travelContract.getInsuredPersons()) {
+                checkRegisteredPerson(p);
+            }
+        }
+    }
+
+    private void checkRegisteredPerson(Person person) {
+
+        if(person == null) {
+            return;
+        }
+        Person registered = personRegistry.find(person.getId());
+        if(registered != null && registered != person) {
+            throw new IllegalArgumentException("another person with id " + person.getId() + " is already registered");
+        }
+    }
+
+    private void indexContract(AbstractContract contract) {
+
+        contractIndex.put(contract.getContractNumber(), contract);
+        if(contract instanceof SingleVehicleContract single) {
+            vehicleIndex.register(single);
+        }
+        personContractIndex.register(contract);
+        aggregates.register(contract);
+        delinquencyIndex.update(contract, currentTime);
+
+        personRegistry.register(contract.getPolicyHolder());
+        if(contract instanceof AbstractVehicleContract vehicleContract && vehicleContract.getBeneficiary() != null) {
+            personRegistry.register(vehicleContract.getBeneficiary());
+        }
+        if(contract instanceof TravelContract travelContract) {
+            for(Person p : travelContract.getInsuredPersons()) {
+                personRegistry.register(p);
+            }
+        }
+    }
+
+    public void childContractAdded(MasterVehicleContract masterVehicleContract, SingleVehicleContract childContract) {
+
+        if(masterVehicleContract == null || childContract == null) {
+            throw new IllegalArgumentException("contracts can't be null");
+        }
+
+        if(isRegistered(masterVehicleContract)) {
+            billingScheduler.childAdded(masterVehicleContract, childContract);
+        }
+    }
+
+    public void beneficiaryChanged(AbstractVehicleContract contract, Person oldBeneficiary) {
+
+        if(contract == null) {
+            throw new IllegalArgumentException("contract can't be null");
+        }
+
+        if(isRegistered(contract)) {
+            personContractIndex.beneficiaryChanged(contract, oldBeneficiary);
+            if(contract.getBeneficiary() != null) {
+                personRegistry.register(contract.getBeneficiary());
+            }
+        }
+    }
+
+    public void balanceChanged(AbstractContract contract, int oldBalance, int newBalance) {
+
+        if(isRegistered(contract)) {
+            aggregates.balanceChanged(oldBalance, newBalance);
+            delinquencyIndex.update(contract, currentTime);
+        }
+    }
+
+    public void coverageChanged(AbstractContract contract, int oldCoverageAmount, int newCoverageAmount) {
+
+        if(isRegistered(contract) && contract.isActive()) {
+            aggregates.coverageChanged(oldCoverageAmount, newCoverageAmount);
+        }
+    }
+
+    public void frequencyChanged(AbstractContract contract, PremiumPaymentFrequency oldFrequency,
+                                 PremiumPaymentFrequency newFrequency) {
+
+        if(isRegistered(contract) && contract.isActive()) {
+            aggregates.frequencyChanged(contract, oldFrequency, newFrequency);
+        }
+    }
+
+    public void contractDeactivated(AbstractContract contract) {
+
+        if(isRegistered(contract)) {
+            aggregates.deactivated(contract);
+        }
+    }
+
     public SingleVehicleContract insureVehicle(String contractNumber, Person beneficiary, Person policyHolder,
                                                int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency,
                                                Vehicle vehicleToInsure) {
@@ -58,41 +455,53 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("invalid input");
         }
 
-        for(AbstractContract c : contracts) {
-            if(c.getContractNumber().equals(contractNumber)) {
-                throw new IllegalArgumentException("contractNumber already exist");
-            }
+        if (PremiumRules.yearlyPremium(proposedPremium, proposedPaymentFrequency)
+                < PremiumRules.minimumVehicleYearlyPremium(vehicleToInsure.getOriginalValue())) {
+            throw new IllegalArgumentException("restrictions aren't met for yearPrem");
         }
 
-        int paymentsForYear = 12 / proposedPaymentFrequency.getValueInMonths();
-        double yearPremD = proposedPremium * paymentsForYear;
-        int yearPrem = (int) Math.floor(yearPremD);
-        int requireMin = (int) Math.floor(0.02 * vehicleToInsure.getOriginalValue());
+        policyHolder = intern(policyHolder);
+        beneficiary = intern(beneficiary);
 
-        if (yearPrem < requireMin) {
-            throw new IllegalArgumentException("restrictions aren't met for yearPrem");
-        }
+        SingleVehicleContract contract;
+        long seq = 0;
+        lockRegistration();
+        try {
+            checkUniqueContractNumber(contractNumber);
 
-        ContractPaymentData paymentData = new ContractPaymentData(
-                proposedPremium,
-                proposedPaymentFrequency,
-                currentTime,
-                0
-        );
-
-        SingleVehicleContract contract = new SingleVehicleContract(
-                contractNumber,
-                this,
-                beneficiary,
-                policyHolder,
-                paymentData,
-                (int) Math.floor(vehicleToInsure.getOriginalValue()/2.0),
-                vehicleToInsure
-        );
-
-        this.chargePremiumOnContract(contract);
-        contracts.add(contract);
-        policyHolder.addContract(contract);
+            if(vehicleIndex.isInsured(vehicleToInsure)) {
+                throw new IllegalArgumentException("vehicle is already insured");
+            }
+
+            ContractPaymentData paymentData = newPaymentData(proposedPremium, proposedPaymentFrequency);
+
+            contract = new SingleVehicleContract(
+                    contractNumber,
+                    this,
+                    beneficiary,
+                    policyHolder,
+                    paymentData,
+                    (int) Math.floor(vehicleToInsure.getOriginalValue()/2.0),
+                    vehicleToInsure
+            );
+
+            // the new contract's stripe is held until it's journaled, so a payment on it can't be journaled first
+            ReentrantLock stripe = handler.lockFor(contract);
+            stripe.lock();
+            try {
+                accrue(contract);
+                registerContract(contract);
+                if(journal != null) {
+                    seq = journal.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium,
+                            proposedPaymentFrequency, vehicleToInsure);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            unlockRegistration();
+        }
+        awaitCommit(seq);
         return contract;
     }
 
@@ -105,45 +514,57 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("invalid input");
         }
 
-        for ( AbstractContract c : contracts ){
-            if ( c.getContractNumber().equals(contractNumber) ) {
-                throw new IllegalArgumentException("contractNumber already exist");
-            }
-        }
-
         for (Person personToInsure : personsToInsure) {
             if (personToInsure.getLegalForm() != LegalForm.NATURAL) {
                 throw new IllegalArgumentException("personToInsure can't be LEGAL");
             }
         }
 
-        int paymentsForYear = 12 / proposedPaymentFrequency.getValueInMonths();
-        double yearPremD = proposedPremium * paymentsForYear;
-        int yearPrem = (int) Math.floor(yearPremD);
-
-        if ( yearPrem < 5 * personsToInsure.size() ) {
+        if ( PremiumRules.yearlyPremium(proposedPremium, proposedPaymentFrequency)
+                < PremiumRules.minimumTravelYearlyPremium(personsToInsure.size()) ) {
             throw new IllegalArgumentException("restrictions aren't met for yearPrem");
         }
 
-        ContractPaymentData contractPaymentData = new ContractPaymentData(
-                proposedPremium,
-                proposedPaymentFrequency,
-                currentTime,
-                0
-        );
-
-        TravelContract contract = new TravelContract(
-                contractNumber,
-                this,
-                policyHolder,
-                contractPaymentData,
-                10 * personsToInsure.size(),
-                personsToInsure
-        );
-
-        this.chargePremiumOnContract(contract);
-        contracts.add(contract);
-        policyHolder.addContract(contract);
+        policyHolder = intern(policyHolder);
+        Set<Person> insuredPersons = new LinkedHashSet<>();
+        for (Person personToInsure : personsToInsure) {
+            insuredPersons.add(intern(personToInsure));
+        }
+        personsToInsure = insuredPersons;
+
+        TravelContract contract;
+        long seq = 0;
+        lockRegistration();
+        try {
+            checkUniqueContractNumber(contractNumber);
+
+            ContractPaymentData contractPaymentData = newPaymentData(proposedPremium, proposedPaymentFrequency);
+
+            contract = new TravelContract(
+                    contractNumber,
+                    this,
+                    policyHolder,
+                    contractPaymentData,
+                    10 * personsToInsure.size(),
+                    personsToInsure
+            );
+
+            ReentrantLock stripe = handler.lockFor(contract);
+            stripe.lock();
+            try {
+                accrue(contract);
+                registerContract(contract);
+                if(journal != null) {
+                    seq = journal.insurePersons(contractNumber, policyHolder, proposedPremium,
+                            proposedPaymentFrequency, personsToInsure);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            unlockRegistration();
+        }
+        awaitCommit(seq);
         return contract;
     }
 
@@ -153,21 +574,35 @@ public class InsuranceCompany {
                 || policyHolder.getLegalForm() != LegalForm.LEGAL ) {
             throw new IllegalArgumentException("invalid input");
         }
-        for (AbstractContract c : contracts) {
-            if(c.getContractNumber().equals(contractNumber))
-            {
-                throw new IllegalArgumentException("contractNumber already exist");
+        policyHolder = intern(policyHolder);
+        beneficiary = intern(beneficiary);
+
+        MasterVehicleContract contract;
+        long seq = 0;
+        lockRegistration();
+        try {
+            checkUniqueContractNumber(contractNumber);
+
+            contract = new MasterVehicleContract(
+                    contractNumber,
+                    this,
+                    beneficiary,
+                    policyHolder
+            );
+            ReentrantLock stripe = handler.lockFor(contract);
+            stripe.lock();
+            try {
+                registerContract(contract);
+                if(journal != null) {
+                    seq = journal.createMasterVehicleContract(contractNumber, beneficiary, policyHolder);
+                }
+            } finally {
+                stripe.unlock();
             }
+        } finally {
+            unlockRegistration();
         }
-
-        MasterVehicleContract contract = new MasterVehicleContract(
-                contractNumber,
-                this,
-                beneficiary,
-                policyHolder
-        );
-        contracts.add(contract);
-        policyHolder.addContract(contract);
+        awaitCommit(seq);
         return contract;
     }
 
@@ -186,94 +621,391 @@ public class InsuranceCompany {
             throw new InvalidContractException("contracts don't belong to insurer");
         }
 
+        if(!isRegistered(masterVehicleContract) || !isRegistered(singleVehicleContract)
+                || singleVehicleContract.getMasterContract() != null) {
+            throw new InvalidContractException("contracts must be registered top-level contracts");
+        }
+
         if(!masterVehicleContract.getPolicyHolder().equals(singleVehicleContract.getPolicyHolder())) {
             throw new InvalidContractException("contract don't belong to policyHolder");
         }
 
-        contracts.remove(singleVehicleContract);
-        singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
-        masterVehicleContract.requestAdditionOfChildContract(singleVehicleContract);
+        // the child changes its payment stripe, so no contract operation may run meanwhile
+        long seq = 0;
+        handler.getBookLock().writeLock().lock();
+        try {
+            contracts.remove(singleVehicleContract);
+            billingScheduler.unschedule(singleVehicleContract);
+            singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
+            masterVehicleContract.requestAdditionOfChildContract(singleVehicleContract);
+
+            if(journal != null) {
+                seq = journal.moveToMasterVehicleContract(masterVehicleContract.getContractNumber(),
+                        singleVehicleContract.getContractNumber());
+            }
+        } finally {
+            handler.getBookLock().writeLock().unlock();
+        }
+        awaitCommit(seq);
     }
 
     public void chargePremiumsOnContracts() {
 
-        for(AbstractContract c : contracts) {
-            if(c.isActive()) {
-                c.updateBalance();
+        long start = metrics.startTimer();
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+
+        long seq = 0;
+        List<AbstractContract> due;
+        IntSummaryStatistics accrued;
+        handler.getBookLock().writeLock().lock();
+        try {
+            due = billingScheduler.drainDue(currentTime);
+            List<AbstractContract> billable = new ArrayList<>();
+
+            for(AbstractContract c : due) {
+                if(!c.isActive()) {
+                    continue;
+                }
+                if(c instanceof MasterVehicleContract master) {
+                    billable.addAll(master.getChildContracts());
+                } else {
+                    billable.add(c);
+                }
             }
+
+            accrued = BillingCohorts.charge(billable, currentTime, handler,
+                    billingMode == BillingMode.PARALLEL ? billingPool : null);
+
+            for(AbstractContract c : due) {
+                if(c.isActive()) {
+                    billingScheduler.schedule(c);
+                }
+            }
+            delinquencyIndex.deactivateExpired(currentTime);
+
+            if(journal != null) {
+                seq = journal.chargePremiumsOnContracts();
+            }
+        } finally {
+            handler.getBookLock().writeLock().unlock();
+        }
+
+        metrics.recordBillingRun(start, accrued.getCount(), accrued.getSum());
+        event.end();
+        if(event.shouldCommit()) {
+            event.billingMode = billingMode.name();
+            event.dueContracts = due.size();
+            event.contractsCharged = accrued.getCount();
+            event.periodsAccrued = accrued.getSum();
+            event.commit();
         }
+
+        awaitCommit(seq);
     }
 
     public void chargePremiumOnContract(AbstractContract contract) {
 
-        ContractPaymentData cpd = contract.getContractPaymentData();
-
-        while(!cpd.getNextPaymentTime().isAfter(currentTime)) {
-            cpd.setOutstandingBalance(cpd.getOutstandingBalance() + cpd.getPremium());
-            cpd.updateNextPaymentTime();
+        int periods;
+        long seq = 0;
+        ReentrantLock lock = lockContract(contract);
+        try {
+            periods = accrue(contract);
+            if(journal != null) {
+                seq = journal.chargePremiumOnContract(contract.getContractNumber());
+            }
+        } finally {
+            unlockContract(lock);
         }
+
+        metrics.recordAccrual(periods > 0 ? 1 : 0, periods);
+        awaitCommit(seq);
     }
 
     public void chargePremiumOnContract(MasterVehicleContract contract) {
 
-        for(SingleVehicleContract c : contract.getChildContracts()) {
-            chargePremiumOnContract(c);
+        IntSummaryStatistics accrued;
+        long seq = 0;
+        ReentrantLock lock = lockContract(contract);
+        try {
+            accrued = BillingCohorts.charge(List.copyOf(contract.getChildContracts()), currentTime, handler, null);
+            if(journal != null) {
+                seq = journal.chargePremiumOnContract(contract.getContractNumber());
+            }
+        } finally {
+            unlockContract(lock);
+        }
+
+        metrics.recordAccrual(accrued.getCount(), accrued.getSum());
+        awaitCommit(seq);
+    }
+
+    private ReentrantLock lockContract(AbstractContract contract) {
+
+        handler.getBookLock().readLock().lock();
+        ReentrantLock lock = handler.lockFor(contract);
+        lock.lock();
+        return lock;
+    }
+
+    private void unlockContract(ReentrantLock lock) {
+        lock.unlock();
+        handler.getBookLock().readLock().unlock();
+    }
+
+    private void awaitCommit(long seq) {
+        if(journal != null && seq > 0) {
+            journal.awaitCommit(seq);
         }
+    }
 
+    private int accrue(AbstractContract contract) {
+        return handler.chargeDuePremiums(contract, currentTime);
     }
 
     public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
 
-        if(singleVehicleContract == null || expectedDamages <= 0) {
-            throw new IllegalArgumentException("invalid parameter");
+        checkClaim(singleVehicleContract, expectedDamages);
+
+        long seq = 0;
+        ReentrantLock lock = lockContract(singleVehicleContract);
+        try {
+            checkActive(singleVehicleContract);
+
+            long start = metrics.startTimer();
+            metrics.recordClaim(start, payoutVehicleClaim(singleVehicleContract, expectedDamages));
+
+            if(journal != null) {
+                seq = journal.processClaim(singleVehicleContract.getContractNumber(), expectedDamages);
+            }
+        } finally {
+            unlockContract(lock);
         }
+        awaitCommit(seq);
+    }
 
-        if (!singleVehicleContract.getInsurer().equals(this)) {
-            throw new InvalidContractException("contract belongs to another insurer");
+    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+
+        checkClaim(travelContract, affectedPersons);
+
+        long seq = 0;
+        ReentrantLock lock = lockContract(travelContract);
+        try {
+            checkActive(travelContract);
+
+            long start = metrics.startTimer();
+            payoutTravelClaim(travelContract, affectedPersons);
+            metrics.recordClaim(start, true);
+
+            if(journal != null) {
+                seq = journal.processClaim(travelContract.getContractNumber(), affectedPersons);
+            }
+        } finally {
+            unlockContract(lock);
         }
+        awaitCommit(seq);
+    }
 
-        if(!singleVehicleContract.isActive()) {
-            throw new InvalidContractException("contract must be active");
+    public List<ClaimResult> processClaims(Stream<ClaimRequest> requests) {
+        return processClaims(requests, false);
+    }
+
+    public List<ClaimResult> processClaims(Stream<ClaimRequest> requests, boolean parallel) {
+
+        if(requests == null) {
+            throw new IllegalArgumentException("requests can't be null");
         }
 
-        if(singleVehicleContract.getBeneficiary() != null) {
-            singleVehicleContract.getBeneficiary().payout(singleVehicleContract.getCoverageAmount());
-        } else {
-            singleVehicleContract.getPolicyHolder().payout(singleVehicleContract.getCoverageAmount());
+        // requests are pulled from the stream a chunk at a time, so a long stream is validated and paid out
+        // while it is still being produced; chunks run in order, which keeps the order of claims per contract
+        List<ClaimResult> results = new ArrayList<>();
+        ClaimRequest[] chunk = new ClaimRequest[CLAIM_CHUNK];
+        ClaimResult[] chunkResults = new ClaimResult[CLAIM_CHUNK];
+        long lastSeq = 0;
+
+        Iterator<ClaimRequest> pending = requests.iterator();
+        while(pending.hasNext()) {
+            int size = 0;
+            while(size < CLAIM_CHUNK && pending.hasNext()) {
+                chunk[size++] = pending.next();
+            }
+
+            lastSeq = Math.max(lastSeq, processClaimChunk(chunk, size, chunkResults, parallel));
+            results.addAll(Arrays.asList(chunkResults).subList(0, size));
+            Arrays.fill(chunk, 0, size, null);
         }
 
-        if(expectedDamages >= (int) Math.floor( 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue())) {
-            singleVehicleContract.setInactive();
+        awaitCommit(lastSeq);
+        return Collections.unmodifiableList(results);
+    }
+
+    private long processClaimChunk(ClaimRequest[] chunk, int size, ClaimResult[] results, boolean parallel) {
+
+        Map<AbstractContract, List<Integer>> claimsByContract = new IdentityHashMap<>();
+
+        for(int i = 0; i < size; i++) {
+            String reason = rejectionReason(chunk[i]);
+            if(reason != null) {
+                results[i] = new ClaimResult(chunk[i], ClaimStatus.REJECTED, 0, reason);
+                metrics.recordRejectedClaim();
+            } else {
+                claimsByContract.computeIfAbsent(chunk[i].getContract(), _ -> new ArrayList<>()).add(i);
+            }
         }
 
+        long[] seq = new long[size];
+        Collection<List<Integer>> groups = claimsByContract.values();
+
+        // the read side is held here rather than in the workers, so a waiting billing run can't starve the pool
+        handler.getBookLock().readLock().lock();
+        try {
+            if(parallel) {
+                billingPool.submit(() -> groups.parallelStream().forEach(group -> applyClaims(chunk, group, results, seq))).join();
+            } else {
+                for(List<Integer> group : groups) {
+                    applyClaims(chunk, group, results, seq);
+                }
+            }
+        } finally {
+            handler.getBookLock().readLock().unlock();
+        }
+
+        long last = 0;
+        for(long s : seq) {
+            last = Math.max(last, s);
+        }
+        return last;
     }
 
-    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+    private void checkClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
+
+        if(singleVehicleContract == null || expectedDamages <= 0) {
+            throw new IllegalArgumentException("invalid parameter");
+        }
+
+        if(singleVehicleContract.getInsurer() != this) {
+            throw new InvalidContractException("contract belongs to another insurer");
+        }
+    }
+
+    private void checkClaim(TravelContract travelContract, Set<Person> affectedPersons) {
 
         if(travelContract == null || affectedPersons == null || affectedPersons.isEmpty()) {
             throw new IllegalArgumentException("invalid input");
         }
 
-        if (!travelContract.getInsurer().equals(this)) {
+        if(travelContract.getInsurer() != this) {
             throw new InvalidContractException("contract belongs to another insurer");
         }
 
-        if(!travelContract.isActive()) {
+        if(!travelContract.getInsuredPersons().containsAll(affectedPersons)) {
+            throw new IllegalArgumentException("affectedPersons arent in insuredPersons");
+        }
+    }
+
+    private static void checkActive(AbstractContract contract) {
+
+        if(!contract.isActive()) {
             throw new InvalidContractException("contract must be active");
         }
+    }
 
-        for(Person p : affectedPersons) {
-            if(!travelContract.getInsuredPersons().contains(p)) {
-                throw new IllegalArgumentException("affectedPersons arent in insuredPersons");
+    // batch claims go through the same checks as single claims and report their message instead of throwing
+    private String rejectionReason(ClaimRequest request) {
+
+        try {
+            if(request == null) {
+                checkClaim((SingleVehicleContract) null, 0);
+            } else if(request.getContract() instanceof TravelContract travelContract) {
+                checkClaim(travelContract, request.getAffectedPersons());
+            } else {
+                checkClaim((SingleVehicleContract) request.getContract(), request.getExpectedDamages());
+            }
+        } catch(IllegalArgumentException | InvalidContractException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void applyClaims(ClaimRequest[] chunk, List<Integer> group, ClaimResult[] results, long[] seq) {
+
+        ReentrantLock lock = handler.lockFor(chunk[group.get(0)].getContract());
+        lock.lock();
+        try {
+            for(int i : group) {
+                applyClaim(chunk[i], i, results, seq);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyClaim(ClaimRequest request, int i, ClaimResult[] results, long[] seq) {
+
+        AbstractContract contract = request.getContract();
+
+        try {
+            checkActive(contract);
+        } catch(InvalidContractException e) {
+            results[i] = new ClaimResult(request, ClaimStatus.REJECTED, 0, e.getMessage());
+            metrics.recordRejectedClaim();
+            return;
+        }
+
+        int payoutAmount = contract instanceof TravelContract
+                ? contract.getCoverageAmount() / request.getAffectedPersons().size()
+                : contract.getCoverageAmount();
+        if(payoutAmount <= 0) {
+            results[i] = new ClaimResult(request, ClaimStatus.REJECTED, 0, "payout amount must be > 0");
+            metrics.recordRejectedClaim();
+            return;
+        }
+
+        long start = metrics.startTimer();
+
+        if(contract instanceof TravelContract travelContract) {
+            int paidOut = payoutTravelClaim(travelContract, request.getAffectedPersons());
+            metrics.recordClaim(start, true);
+            results[i] = new ClaimResult(request, ClaimStatus.PAID_AND_DEACTIVATED, paidOut, null);
+            if(journal != null) {
+                seq[i] = journal.processClaim(contract.getContractNumber(), request.getAffectedPersons());
             }
+        } else {
+            SingleVehicleContract vehicleContract = (SingleVehicleContract) contract;
+            boolean deactivated = payoutVehicleClaim(vehicleContract, request.getExpectedDamages());
+            metrics.recordClaim(start, deactivated);
+            results[i] = new ClaimResult(request, deactivated ? ClaimStatus.PAID_AND_DEACTIVATED : ClaimStatus.PAID,
+                    vehicleContract.getCoverageAmount(), null);
+            if(journal != null) {
+                seq[i] = journal.processClaim(contract.getContractNumber(), request.getExpectedDamages());
+            }
+        }
+    }
+
+    private boolean payoutVehicleClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
+
+        if(singleVehicleContract.getBeneficiary() != null) {
+            singleVehicleContract.getBeneficiary().payout(singleVehicleContract.getCoverageAmount());
+        } else {
+            singleVehicleContract.getPolicyHolder().payout(singleVehicleContract.getCoverageAmount());
         }
 
-        int insureAmount = affectedPersons.isEmpty() ? 0 : (int) Math.floor((double)travelContract.getCoverageAmount() /(double) affectedPersons.size());
+        if(expectedDamages >= (int) Math.floor( 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue())) {
+            singleVehicleContract.setInactive();
+            return true;
+        }
+        return false;
+    }
+
+    private int payoutTravelClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+
+        int insureAmount = (int) Math.floor((double)travelContract.getCoverageAmount() /(double) affectedPersons.size());
 
         for(Person p : affectedPersons) {
             p.payout(insureAmount);
         }
 
         travelContract.setInactive();
+        return insureAmount * affectedPersons.size();
     }
 }
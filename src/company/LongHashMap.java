@@ -0,0 +1,126 @@
+package company;
+
+import java.util.Arrays;
+
+// open addressing over primitive keys; not thread-safe, owners such as VehicleIndex guard it
+class LongHashMap<V> {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongHashMap() {
+        this(16);
+    }
+
+    LongHashMap(int expectedSize) {
+
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+
+        int mask = keys.length - 1;
+        for(int i = index(key, mask); keys[i] != FREE; i = (i + 1) & mask) {
+            if(keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+
+        if(key == FREE) {
+            throw new IllegalArgumentException("key is reserved");
+        }
+
+        if((size + 1) * 4L > keys.length * 3L) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while(keys[i] != FREE) {
+            if(keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while(keys[i] != key) {
+            if(keys[i] == FREE) {
+                return null;
+            }
+            i = (i + 1) & mask;
+        }
+
+        V previous = (V) values[i];
+        size--;
+
+        int gap = i;
+        for(int j = (gap + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = index(keys[j], mask);
+            if(((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+        return previous;
+    }
+
+    private void resize(int capacity) {
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+
+        int mask = capacity - 1;
+        for(int j = 0; j < oldKeys.length; j++) {
+            if(oldKeys[j] != FREE) {
+                int i = index(oldKeys[j], mask);
+                while(keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int index(long key, int mask) {
+
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
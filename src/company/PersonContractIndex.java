@@ -0,0 +1,120 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.AbstractVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// beneficiaries change from whichever thread calls setBeneficiary, so lookups share a read lock, updates take
+// the write lock and lookups return a copy rather than a view of a set that may change underneath
+public class PersonContractIndex {
+
+    private final Map<Person, Set<AbstractContract>> byPolicyHolder;
+    private final Map<Person, Set<AbstractContract>> byBeneficiary;
+    private final Map<Person, Set<AbstractContract>> byInsuredPerson;
+    private final ReentrantReadWriteLock lock;
+
+    public PersonContractIndex() {
+        this.byPolicyHolder = new HashMap<>();
+        this.byBeneficiary = new HashMap<>();
+        this.byInsuredPerson = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    public Set<AbstractContract> findByPolicyHolder(Person person) {
+        return find(byPolicyHolder, person);
+    }
+
+    public Set<AbstractContract> findByBeneficiary(Person person) {
+        return find(byBeneficiary, person);
+    }
+
+    public Set<AbstractContract> findByInsuredPerson(Person person) {
+        return find(byInsuredPerson, person);
+    }
+
+    void register(AbstractContract contract) {
+
+        lock.writeLock().lock();
+        try {
+            add(byPolicyHolder, contract.getPolicyHolder(), contract);
+            if(contract instanceof AbstractVehicleContract vehicleContract) {
+                add(byBeneficiary, vehicleContract.getBeneficiary(), contract);
+            }
+            if(contract instanceof TravelContract travelContract) {
+                for(Person p : travelContract.getInsuredPersons()) {
+                    add(byInsuredPerson, p, contract);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void unregister(AbstractContract contract) {
+
+        lock.writeLock().lock();
+        try {
+            remove(byPolicyHolder, contract.getPolicyHolder(), contract);
+            if(contract instanceof AbstractVehicleContract vehicleContract) {
+                remove(byBeneficiary, vehicleContract.getBeneficiary(), contract);
+            }
+            if(contract instanceof TravelContract travelContract) {
+                for(Person p : travelContract.getInsuredPersons()) {
+                    remove(byInsuredPerson, p, contract);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void beneficiaryChanged(AbstractVehicleContract contract, Person oldBeneficiary) {
+
+        lock.writeLock().lock();
+        try {
+            remove(byBeneficiary, oldBeneficiary, contract);
+            add(byBeneficiary, contract.getBeneficiary(), contract);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<AbstractContract> find(Map<Person, Set<AbstractContract>> index, Person person) {
+
+        lock.readLock().lock();
+        try {
+            Set<AbstractContract> contracts = index.get(person);
+            if(contracts == null) {
+                return Collections.emptySet();
+            }
+            Set<AbstractContract> copy = Collections.newSetFromMap(new IdentityHashMap<>());
+            copy.addAll(contracts);
+            return Collections.unmodifiableSet(copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<Person, Set<AbstractContract>> index, Person person, AbstractContract contract) {
+
+        if(person != null) {
+            index.computeIfAbsent(person, _ -> Collections.newSetFromMap(new IdentityHashMap<>())).add(contract);
+        }
+    }
+
+    private static void remove(Map<Person, Set<AbstractContract>> index, Person person, AbstractContract contract) {
+
+        Set<AbstractContract> contracts = person == null ? null : index.get(person);
+        if(contracts != null && contracts.remove(contract) && contracts.isEmpty()) {
+            index.remove(person);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package company;
+
+import objects.Person;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PersonRegistry {
+
+    private final Map<String, Person> persons;
+
+    public PersonRegistry() {
+        this.persons = new ConcurrentHashMap<>();
+    }
+
+    public Person getOrCreate(String id) {
+
+        if(id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("id can't be null or empty");
+        }
+        return persons.computeIfAbsent(id, Person::new);
+    }
+
+    public Person register(Person person) {
+
+        if(person == null) {
+            throw new IllegalArgumentException("person can't be null");
+        }
+
+        Person existing = persons.putIfAbsent(person.getId(), person);
+        return existing == null ? person : existing;
+    }
+
+    public Person find(String id) {
+        return id == null ? null : persons.get(id);
+    }
+
+    public boolean contains(String id) {
+        return id != null && persons.containsKey(id);
+    }
+
+    public int size() {
+        return persons.size();
+    }
+}
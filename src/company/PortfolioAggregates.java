@@ -0,0 +1,136 @@
+package company;
+
+import contracts.AbstractContract;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class PortfolioAggregates {
+
+    private static final ContractType[] TYPES = ContractType.values();
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private final LongAdder outstandingBalance;
+    private final LongAdder coverageExposure;
+    // one slot per type and frequency, plus a trailing slot per type for contracts without payment data
+    private final LongAdder[] activeContracts;
+
+    public PortfolioAggregates() {
+
+        this.outstandingBalance = new LongAdder();
+        this.coverageExposure = new LongAdder();
+        this.activeContracts = new LongAdder[TYPES.length * (FREQUENCIES.length + 1)];
+        for(int i = 0; i < activeContracts.length; i++) {
+            activeContracts[i] = new LongAdder();
+        }
+    }
+
+    public long getOutstandingBalance() {
+        return outstandingBalance.sum();
+    }
+
+    public long getCoverageExposure() {
+        return coverageExposure.sum();
+    }
+
+    public long getActiveContracts() {
+
+        long total = 0;
+        for(LongAdder count : activeContracts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public long getActiveContracts(ContractType type) {
+
+        if(type == null) {
+            throw new IllegalArgumentException("type can't be null");
+        }
+
+        long total = 0;
+        int base = type.ordinal() * (FREQUENCIES.length + 1);
+        for(int i = 0; i <= FREQUENCIES.length; i++) {
+            total += activeContracts[base + i].sum();
+        }
+        return total;
+    }
+
+    public long getActiveContracts(ContractType type, PremiumPaymentFrequency frequency) {
+
+        if(type == null || frequency == null) {
+            throw new IllegalArgumentException("type or frequency can't be null");
+        }
+        return activeContracts[type.ordinal() * (FREQUENCIES.length + 1) + frequency.ordinal()].sum();
+    }
+
+    void register(AbstractContract contract) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if(paymentData != null) {
+            outstandingBalance.add(paymentData.getOutstandingBalance());
+        }
+        if(contract.isActive()) {
+            activated(contract);
+        }
+    }
+
+    void unregister(AbstractContract contract) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if(paymentData != null) {
+            outstandingBalance.add(-paymentData.getOutstandingBalance());
+        }
+        if(contract.isActive()) {
+            deactivated(contract);
+        }
+    }
+
+    void balanceChanged(int oldBalance, int newBalance) {
+        outstandingBalance.add((long) newBalance - oldBalance);
+    }
+
+    void coverageChanged(int oldCoverage, int newCoverage) {
+        coverageExposure.add((long) newCoverage - oldCoverage);
+    }
+
+    void frequencyChanged(AbstractContract contract, PremiumPaymentFrequency oldFrequency,
+                          PremiumPaymentFrequency newFrequency) {
+
+        int base = ContractType.of(contract).ordinal() * (FREQUENCIES.length + 1);
+        activeContracts[base + oldFrequency.ordinal()].decrement();
+        activeContracts[base + newFrequency.ordinal()].increment();
+    }
+
+    private void activated(AbstractContract contract) {
+        coverageExposure.add(contract.getCoverageAmount());
+        activeContracts[slot(contract)].increment();
+    }
+
+    void deactivated(AbstractContract contract) {
+        coverageExposure.add(-contract.getCoverageAmount());
+        activeContracts[slot(contract)].decrement();
+    }
+
+    boolean sameTotals(PortfolioAggregates other) {
+
+        if(getOutstandingBalance() != other.getOutstandingBalance()
+                || getCoverageExposure() != other.getCoverageExposure()) {
+            return false;
+        }
+        for(int i = 0; i < activeContracts.length; i++) {
+            if(activeContracts[i].sum() != other.activeContracts[i].sum()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slot(AbstractContract contract) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        int frequency = paymentData == null ? FREQUENCIES.length : paymentData.getPremiumPaymentFrequency().ordinal();
+        return ContractType.of(contract).ordinal() * (FREQUENCIES.length + 1) + frequency;
+    }
+}
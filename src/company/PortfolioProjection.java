@@ -0,0 +1,110 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import payment.ContractPaymentData;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class PortfolioProjection {
+
+    private final InsuranceCompany company;
+    private final int horizonMonths;
+    private final int bucketMonths;
+
+    public PortfolioProjection(InsuranceCompany company, int horizonMonths, int bucketMonths) {
+
+        if(company == null || horizonMonths <= 0 || bucketMonths <= 0) {
+            throw new IllegalArgumentException("invalid input");
+        }
+
+        this.company = company;
+        this.horizonMonths = horizonMonths;
+        this.bucketMonths = bucketMonths;
+    }
+
+    // payments already due at the current time fall into the first bucket, as the next billing run charges them
+    public Stream<ProjectionBucket> project() {
+
+        // the schedule is copied while billing runs, moves and issuance are shut out, so the buckets add up
+        // one point in time; payments only wait for the copy, not for the projection
+        LocalDateTime currentTime;
+        List<BillableUnit> units;
+        company.getHandler().getBookLock().writeLock().lock();
+        try {
+            currentTime = company.getCurrentTime();
+            units = billableUnits();
+        } finally {
+            company.getHandler().getBookLock().writeLock().unlock();
+        }
+
+        YearMonth startMonth = YearMonth.from(currentTime);
+        long firstMonth = monthIndex(currentTime);
+        int buckets = (horizonMonths + bucketMonths - 1) / bucketMonths;
+
+        long[] totals = company.getBillingPool().submit(() -> units.parallelStream().collect(
+                () -> new long[2 * buckets],
+                (acc, unit) -> accumulate(acc, unit, firstMonth),
+                PortfolioProjection::combine
+        )).join();
+
+        return IntStream.range(0, buckets).mapToObj(i -> new ProjectionBucket(
+                startMonth.plusMonths((long) i * bucketMonths),
+                Math.min(bucketMonths, horizonMonths - i * bucketMonths),
+                totals[2 * i],
+                totals[2 * i + 1]
+        ));
+    }
+
+    private List<BillableUnit> billableUnits() {
+
+        List<BillableUnit> units = new ArrayList<>();
+        for(AbstractContract contract : company.getContracts()) {
+            if(!contract.isActive()) {
+                continue;
+            }
+            if(contract instanceof MasterVehicleContract master) {
+                master.getChildContracts().forEach(child -> units.add(BillableUnit.of(child.getContractPaymentData())));
+            } else {
+                units.add(BillableUnit.of(contract.getContractPaymentData()));
+            }
+        }
+        return units;
+    }
+
+    private void accumulate(long[] acc, BillableUnit unit, long firstMonth) {
+
+        int months = unit.months();
+        int premium = unit.premium();
+
+        for(long month = unit.nextPaymentMonth(); month < firstMonth + horizonMonths; month += months) {
+            int bucket = (int) (Math.max(0, month - firstMonth) / bucketMonths);
+            acc[2 * bucket] += premium;
+            acc[2 * bucket + 1]++;
+        }
+    }
+
+    private static void combine(long[] left, long[] right) {
+        for(int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+    }
+
+    private static long monthIndex(LocalDateTime time) {
+        return time.getYear() * 12L + time.getMonthValue() - 1;
+    }
+
+    private record BillableUnit(int premium, int months, long nextPaymentMonth) {
+
+        static BillableUnit of(ContractPaymentData paymentData) {
+            return new BillableUnit(paymentData.getPremium(),
+                    paymentData.getPremiumPaymentFrequency().getValueInMonths(),
+                    monthIndex(paymentData.getNextPaymentTime()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package company;
+
+import payment.PremiumPaymentFrequency;
+
+// the minimum premium rules of issuance: a vehicle's yearly premium must reach 2% of its original value,
+// a travel contract's 5 per insured person
+public final class PremiumRules {
+
+    private PremiumRules() {
+    }
+
+    public static int yearlyPremium(int premium, PremiumPaymentFrequency frequency) {
+        return premium * (12 / frequency.getValueInMonths());
+    }
+
+    public static int minimumVehicleYearlyPremium(int originalValue) {
+        return (int) Math.floor(0.02 * originalValue);
+    }
+
+    public static int minimumTravelYearlyPremium(int insuredPersons) {
+        return 5 * insuredPersons;
+    }
+
+    public static int minimumVehiclePremium(int originalValue, PremiumPaymentFrequency frequency) {
+
+        if(originalValue <= 0 || frequency == null) {
+            throw new IllegalArgumentException("invalid input");
+        }
+        return minimumPremium(minimumVehicleYearlyPremium(originalValue), frequency);
+    }
+
+    public static int minimumTravelPremium(int insuredPersons, PremiumPaymentFrequency frequency) {
+
+        if(insuredPersons <= 0 || frequency == null) {
+            throw new IllegalArgumentException("invalid input");
+        }
+        return minimumPremium(minimumTravelYearlyPremium(insuredPersons), frequency);
+    }
+
+    // smallest premium per period whose yearly total meets the minimum
+    private static int minimumPremium(int minimumYearlyPremium, PremiumPaymentFrequency frequency) {
+
+        int paymentsForYear = 12 / frequency.getValueInMonths();
+        return Math.max(1, (minimumYearlyPremium + paymentsForYear - 1) / paymentsForYear);
+    }
+}
@@ -0,0 +1,39 @@
+package company;
+
+import java.time.YearMonth;
+
+public class ProjectionBucket {
+
+    private final YearMonth start;
+    private final int months;
+    private final long premiumIncome;
+    private final long payments;
+
+    public ProjectionBucket(YearMonth start, int months, long premiumIncome, long payments) {
+
+        this.start = start;
+        this.months = months;
+        this.premiumIncome = premiumIncome;
+        this.payments = payments;
+    }
+
+    public YearMonth getStart() {
+        return start;
+    }
+
+    public YearMonth getEnd() {
+        return start.plusMonths(months - 1);
+    }
+
+    public int getMonths() {
+        return months;
+    }
+
+    public long getPremiumIncome() {
+        return premiumIncome;
+    }
+
+    public long getPayments() {
+        return payments;
+    }
+}
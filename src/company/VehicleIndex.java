@@ -0,0 +1,66 @@
+package company;
+
+import contracts.SingleVehicleContract;
+import objects.Vehicle;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// LongHashMap isn't safe for concurrent use, so lookups share a read lock and updates take the write lock
+public class VehicleIndex {
+
+    private final LongHashMap<SingleVehicleContract> contractsByPlate;
+    private final ReentrantReadWriteLock lock;
+
+    public VehicleIndex() {
+        this.contractsByPlate = new LongHashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    public SingleVehicleContract find(String licensePlate) {
+
+        long code = Vehicle.encodeLicensePlate(licensePlate);
+        return code < 0 ? null : find(code);
+    }
+
+    public SingleVehicleContract find(long licensePlateCode) {
+
+        SingleVehicleContract contract;
+        lock.readLock().lock();
+        try {
+            contract = contractsByPlate.get(licensePlateCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return contract != null && contract.isActive() ? contract : null;
+    }
+
+    public boolean isInsured(Vehicle vehicle) {
+        return vehicle != null && find(vehicle.getLicensePlateCode()) != null;
+    }
+
+    void register(SingleVehicleContract contract) {
+
+        long code = contract.getInsuredVehicle().getLicensePlateCode();
+        lock.writeLock().lock();
+        try {
+            if(contract.isActive() || contractsByPlate.get(code) == null) {
+                contractsByPlate.put(code, contract);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void unregister(SingleVehicleContract contract) {
+
+        long code = contract.getInsuredVehicle().getLicensePlateCode();
+        lock.writeLock().lock();
+        try {
+            if(contractsByPlate.get(code) == contract) {
+                contractsByPlate.remove(code);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
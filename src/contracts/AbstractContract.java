@@ -3,17 +3,31 @@ package contracts;
 import company.InsuranceCompany;
 import objects.Person;
 import payment.ContractPaymentData;
+import payment.PaymentDataListener;
+import payment.PremiumPaymentFrequency;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 
-public abstract class AbstractContract {
+public abstract class AbstractContract implements PaymentDataListener {
+
+    private static final VarHandle ACTIVE;
+
+    static {
+        try {
+            ACTIVE = MethodHandles.lookup().findVarHandle(AbstractContract.class, "isActive", boolean.class);
+        } catch ( ReflectiveOperationException e ) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private final String contractNumber;
     protected final InsuranceCompany insurer;
     protected final Person policyHolder;
     protected final ContractPaymentData contractPaymentData;
     protected int coverageAmount;
-    protected boolean isActive;
+    protected volatile boolean isActive;
 
     public AbstractContract(String contractNumber, InsuranceCompany insurer,
                 Person policyHolder, ContractPaymentData contractPaymentData,
@@ -40,6 +54,10 @@ public abstract class AbstractContract {
         this.coverageAmount = coverageAmount;
         this.isActive = true;
 
+        if( contractPaymentData != null ) {
+            contractPaymentData.setListener(this);
+        }
+
     }
 
     public String getContractNumber() {
@@ -63,7 +81,16 @@ public abstract class AbstractContract {
     }
 
     public void setInactive() {
-        isActive = false;
+
+        boolean wasActive = isActive();
+        if( deactivate() && wasActive && !isActive() ) {
+            insurer.contractDeactivated(this);
+        }
+    }
+
+    // true only for the call that clears the flag, so concurrent deactivations are reported once
+    protected final boolean deactivate() {
+        return ACTIVE.compareAndSet(this, true, false);
     }
 
     public void setCoverageAmount(int coverageAmount) {
@@ -71,8 +98,11 @@ public abstract class AbstractContract {
         if( coverageAmount < 0 ) {
             throw new IllegalArgumentException("coverageAmount can't be < 0");
         }
+        int oldCoverageAmount = this.coverageAmount;
         this.coverageAmount = coverageAmount;
-
+        if( oldCoverageAmount != coverageAmount ) {
+            insurer.coverageChanged(this, oldCoverageAmount, coverageAmount);
+        }
     }
 
     public ContractPaymentData getContractPaymentData() {
@@ -90,6 +120,17 @@ public abstract class AbstractContract {
         insurer.chargePremiumOnContract(this);
     }
 
+    // the contract listens to its own payment data, so no listener object is allocated per contract
+    @Override
+    public void balanceChanged(int oldBalance, int newBalance) {
+        insurer.balanceChanged(this, oldBalance, newBalance);
+    }
+
+    @Override
+    public void frequencyChanged(PremiumPaymentFrequency oldFrequency, PremiumPaymentFrequency newFrequency) {
+        insurer.frequencyChanged(this, oldFrequency, newFrequency);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if( this == obj ) return true;
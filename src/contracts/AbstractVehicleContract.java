@@ -24,7 +24,11 @@ public abstract class AbstractVehicleContract extends AbstractContract {
         if(beneficiary!=null && beneficiary.equals(policyHolder)) {
             throw new IllegalArgumentException("beneficiary can't be the same as policyHolder");
         }
+        Person oldBeneficiary = this.beneficiary;
         this.beneficiary = beneficiary;
+        if(oldBeneficiary != beneficiary) {
+            insurer.beneficiaryChanged(this, oldBeneficiary);
+        }
     }
 
     public Person getBeneficiary() {
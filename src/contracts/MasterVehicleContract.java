@@ -4,12 +4,20 @@ import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MasterVehicleContract extends AbstractVehicleContract {
 
     private final Set<SingleVehicleContract> childContracts;
+    private final Map<String, SingleVehicleContract> activeChildContracts;
+    private final AtomicInteger activeChildCount;
+    private final AtomicInteger outstandingBalance;
 
     public MasterVehicleContract(String contractNumber, InsuranceCompany insurer,
                                  Person beneficiary, Person policyHolder) {
@@ -23,11 +31,26 @@ public class MasterVehicleContract extends AbstractVehicleContract {
         }
 
         this.childContracts = new LinkedHashSet<>();
+        this.activeChildContracts = new LinkedHashMap<>();
+        this.activeChildCount = new AtomicInteger();
+        this.outstandingBalance = new AtomicInteger();
 
     }
 
     public Set<SingleVehicleContract> getChildContracts() {
-        return childContracts;
+        return Collections.unmodifiableSet(childContracts);
+    }
+
+    // children leave in O(1) when they report their deactivation, so readers get a copy in insertion order
+    public List<SingleVehicleContract> getActiveChildContracts() {
+
+        synchronized (activeChildContracts) {
+            return List.copyOf(activeChildContracts.values());
+        }
+    }
+
+    public int getOutstandingBalance() {
+        return outstandingBalance.get();
     }
 
     public void requestAdditionOfChildContract(SingleVehicleContract contract) {
@@ -45,6 +68,13 @@ public class MasterVehicleContract extends AbstractVehicleContract {
             throw new InvalidContractException("contract already exists in MasterContract");
         }
         childContracts.add(contract);
+        synchronized (activeChildContracts) {
+            activeChildContracts.put(contract.getContractNumber(), contract);
+        }
+        contract.setMasterContract(this);
+        activeChildCount.incrementAndGet();
+        outstandingBalance.addAndGet(contract.getContractPaymentData().getOutstandingBalance());
+        insurer.childContractAdded(this, contract);
     }
 
     @Override
@@ -54,13 +84,7 @@ public class MasterVehicleContract extends AbstractVehicleContract {
             return super.isActive();
         }
 
-        for(SingleVehicleContract c : childContracts) {
-            if(c.isActive()) {
-                return true;
-            }
-        }
-
-        return false;
+        return activeChildCount.get() > 0;
     }
 
     @Override
@@ -73,6 +97,20 @@ public class MasterVehicleContract extends AbstractVehicleContract {
         super.setInactive();
     }
 
+    void childContractDeactivated(SingleVehicleContract contract) {
+
+        synchronized (activeChildContracts) {
+            activeChildContracts.remove(contract.getContractNumber());
+        }
+        if(activeChildCount.decrementAndGet() == 0) {
+            insurer.contractDeactivated(this);
+        }
+    }
+
+    void childBalanceChanged(int delta) {
+        outstandingBalance.addAndGet(delta);
+    }
+
     @Override
     public void pay(int amount) {
 
@@ -7,6 +7,7 @@ import payment.ContractPaymentData;
 
 public class SingleVehicleContract extends AbstractVehicleContract {
     private final Vehicle insuredVehicle;
+    private MasterVehicleContract masterContract;
 
     public SingleVehicleContract(String contractNumber, InsuranceCompany insurer, Person beneficiary,
                                  Person policyHolder,ContractPaymentData contractPaymentData,
@@ -22,4 +23,35 @@ public class SingleVehicleContract extends AbstractVehicleContract {
         return insuredVehicle;
     }
 
+    public MasterVehicleContract getMasterContract() {
+        return masterContract;
+    }
+
+    void setMasterContract(MasterVehicleContract masterContract) {
+        this.masterContract = masterContract;
+    }
+
+    // only the call that switches the contract off reports it, so the master's count drops exactly once
+    @Override
+    public void setInactive() {
+
+        if( !deactivate() ) {
+            return;
+        }
+
+        insurer.contractDeactivated(this);
+        if( masterContract != null ) {
+            masterContract.childContractDeactivated(this);
+        }
+    }
+
+    @Override
+    public void balanceChanged(int oldBalance, int newBalance) {
+
+        super.balanceChanged(oldBalance, newBalance);
+        if( masterContract != null ) {
+            masterContract.childBalanceChanged(newBalance - oldBalance);
+        }
+    }
+
 }
@@ -0,0 +1,24 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("insurance.BillingRun")
+@Label("Billing Run")
+@Category("Insurance")
+public class BillingRunEvent extends Event {
+
+    @Label("Billing Mode")
+    public String billingMode;
+
+    @Label("Due Contracts")
+    public int dueContracts;
+
+    @Label("Contracts Charged")
+    public long contractsCharged;
+
+    @Label("Periods Accrued")
+    public long periodsAccrued;
+}
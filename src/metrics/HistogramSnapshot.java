@@ -0,0 +1,56 @@
+package metrics;
+
+public class HistogramSnapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long totalNanos;
+
+    HistogramSnapshot(long[] buckets, long totalNanos) {
+
+        long count = 0;
+        for(long b : buckets) {
+            count += b;
+        }
+        this.buckets = buckets;
+        this.count = count;
+        this.totalNanos = totalNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    // upper bound of the bucket holding the requested percentile, so at most 2x the true value
+    public long getPercentileNanos(double percentile) {
+
+        if(percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if(count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for(int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if(seen >= rank) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+}
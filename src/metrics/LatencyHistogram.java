@@ -0,0 +1,47 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] counts;
+    private final LongAdder totalNanos;
+
+    public LatencyHistogram() {
+
+        this.counts = new LongAdder[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+        this.totalNanos = new LongAdder();
+    }
+
+    // bucket i holds latencies in [2^(i-1), 2^i) nanoseconds
+    public void record(long nanos) {
+
+        if(nanos < 0) {
+            nanos = 0;
+        }
+        counts[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        totalNanos.add(nanos);
+    }
+
+    public HistogramSnapshot snapshot() {
+
+        long[] snapshot = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return new HistogramSnapshot(snapshot, totalNanos.sum());
+    }
+
+    void reset() {
+
+        for(LongAdder count : counts) {
+            count.reset();
+        }
+        totalNanos.reset();
+    }
+}
@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("insurance.MasterPayment")
+@Label("Master Contract Payment")
+@Category("Insurance")
+@Threshold("1 ms")
+public class MasterPaymentEvent extends Event {
+
+    @Label("Contract Number")
+    public String contractNumber;
+
+    @Label("Amount")
+    public int amount;
+
+    @Label("Active Child Contracts")
+    public int activeChildContracts;
+}
@@ -0,0 +1,126 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+
+    private volatile boolean enabled;
+
+    private final LongAdder billingRuns;
+    private final LongAdder contractsCharged;
+    private final LongAdder periodsAccrued;
+    private final LongAdder paymentsApplied;
+    private final LongAdder paymentsRejected;
+    private final LongAdder claimsPaid;
+    private final LongAdder claimsDeactivated;
+    private final LongAdder claimsRejected;
+    private final LatencyHistogram billingLatency;
+    private final LatencyHistogram paymentLatency;
+    private final LatencyHistogram claimLatency;
+
+    public Metrics() {
+
+        this.billingRuns = new LongAdder();
+        this.contractsCharged = new LongAdder();
+        this.periodsAccrued = new LongAdder();
+        this.paymentsApplied = new LongAdder();
+        this.paymentsRejected = new LongAdder();
+        this.claimsPaid = new LongAdder();
+        this.claimsDeactivated = new LongAdder();
+        this.claimsRejected = new LongAdder();
+        this.billingLatency = new LatencyHistogram();
+        this.paymentLatency = new LatencyHistogram();
+        this.claimLatency = new LatencyHistogram();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // returns 0 while disabled so the matching record call is skipped without reading the clock
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void recordBillingRun(long start, long contractsCharged, long periodsAccrued) {
+
+        if(start != 0) {
+            billingLatency.record(System.nanoTime() - start);
+            billingRuns.increment();
+            recordAccrual(contractsCharged, periodsAccrued);
+        }
+    }
+
+    public void recordAccrual(long contractsCharged, long periodsAccrued) {
+
+        if(enabled && periodsAccrued > 0) {
+            this.contractsCharged.add(contractsCharged);
+            this.periodsAccrued.add(periodsAccrued);
+        }
+    }
+
+    public void recordPayment(long start) {
+
+        if(start != 0) {
+            paymentLatency.record(System.nanoTime() - start);
+            paymentsApplied.increment();
+        }
+    }
+
+    public void recordRejectedPayment() {
+
+        if(enabled) {
+            paymentsRejected.increment();
+        }
+    }
+
+    public void recordClaim(long start, boolean deactivated) {
+
+        if(start != 0) {
+            claimLatency.record(System.nanoTime() - start);
+            (deactivated ? claimsDeactivated : claimsPaid).increment();
+        }
+    }
+
+    public void recordRejectedClaim() {
+
+        if(enabled) {
+            claimsRejected.increment();
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(
+                billingRuns.sum(),
+                contractsCharged.sum(),
+                periodsAccrued.sum(),
+                paymentsApplied.sum(),
+                paymentsRejected.sum(),
+                claimsPaid.sum(),
+                claimsDeactivated.sum(),
+                claimsRejected.sum(),
+                billingLatency.snapshot(),
+                paymentLatency.snapshot(),
+                claimLatency.snapshot()
+        );
+    }
+
+    public void reset() {
+
+        billingRuns.reset();
+        contractsCharged.reset();
+        periodsAccrued.reset();
+        paymentsApplied.reset();
+        paymentsRejected.reset();
+        claimsPaid.reset();
+        claimsDeactivated.reset();
+        claimsRejected.reset();
+        billingLatency.reset();
+        paymentLatency.reset();
+        claimLatency.reset();
+    }
+}
@@ -0,0 +1,78 @@
+package metrics;
+
+public class MetricsSnapshot {
+
+    private final long billingRuns;
+    private final long contractsCharged;
+    private final long periodsAccrued;
+    private final long paymentsApplied;
+    private final long paymentsRejected;
+    private final long claimsPaid;
+    private final long claimsDeactivated;
+    private final long claimsRejected;
+    private final HistogramSnapshot billingLatency;
+    private final HistogramSnapshot paymentLatency;
+    private final HistogramSnapshot claimLatency;
+
+    MetricsSnapshot(long billingRuns, long contractsCharged, long periodsAccrued, long paymentsApplied,
+                    long paymentsRejected, long claimsPaid, long claimsDeactivated, long claimsRejected,
+                    HistogramSnapshot billingLatency, HistogramSnapshot paymentLatency,
+                    HistogramSnapshot claimLatency) {
+
+        this.billingRuns = billingRuns;
+        this.contractsCharged = contractsCharged;
+        this.periodsAccrued = periodsAccrued;
+        this.paymentsApplied = paymentsApplied;
+        this.paymentsRejected = paymentsRejected;
+        this.claimsPaid = claimsPaid;
+        this.claimsDeactivated = claimsDeactivated;
+        this.claimsRejected = claimsRejected;
+        this.billingLatency = billingLatency;
+        this.paymentLatency = paymentLatency;
+        this.claimLatency = claimLatency;
+    }
+
+    public long getBillingRuns() {
+        return billingRuns;
+    }
+
+    public long getContractsCharged() {
+        return contractsCharged;
+    }
+
+    public long getPeriodsAccrued() {
+        return periodsAccrued;
+    }
+
+    public long getPaymentsApplied() {
+        return paymentsApplied;
+    }
+
+    public long getPaymentsRejected() {
+        return paymentsRejected;
+    }
+
+    public long getClaimsPaid() {
+        return claimsPaid;
+    }
+
+    public long getClaimsDeactivated() {
+        return claimsDeactivated;
+    }
+
+    public long getClaimsRejected() {
+        return claimsRejected;
+    }
+
+    public HistogramSnapshot getBillingLatency() {
+        return billingLatency;
+    }
+
+    public HistogramSnapshot getPaymentLatency() {
+        return paymentLatency;
+    }
+
+    public HistogramSnapshot getClaimLatency() {
+        return claimLatency;
+    }
+}
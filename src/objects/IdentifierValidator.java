@@ -0,0 +1,130 @@
+package objects;
+
+import java.nio.ByteBuffer;
+import java.time.Year;
+
+public final class IdentifierValidator {
+
+    private IdentifierValidator() {
+    }
+
+    public static boolean isValidBirthNumber(CharSequence birthNumber) {
+
+        if(birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10)) {
+            return false;
+        }
+
+        int checksum = 0;
+        for(int i = 0; i < birthNumber.length(); i++) {
+            char c = birthNumber.charAt(i);
+            if(!Character.isDigit(c)) {
+                return false;
+            }
+            checksum += (i % 2 == 0) ? (c - '0') : -(c - '0');
+        }
+
+        int RR = digit(birthNumber, 0) * 10 + digit(birthNumber, 1);
+        int MM = digit(birthNumber, 2) * 10 + digit(birthNumber, 3);
+        int DD = digit(birthNumber, 4) * 10 + digit(birthNumber, 5);
+
+        return isValidBirthNumber(RR, MM, DD, birthNumber.length(), checksum);
+    }
+
+    public static boolean isValidBirthNumber(ByteBuffer buffer, int offset, int length) {
+
+        if(buffer == null || !(length == 9 || length == 10) || offset < 0 || offset > buffer.limit() - length) {
+            return false;
+        }
+
+        int checksum = 0;
+        for(int i = 0; i < length; i++) {
+            int d = buffer.get(offset + i) - '0';
+            if(d < 0 || d > 9) {
+                return false;
+            }
+            checksum += (i % 2 == 0) ? d : -d;
+        }
+
+        int RR = (buffer.get(offset) - '0') * 10 + (buffer.get(offset + 1) - '0');
+        int MM = (buffer.get(offset + 2) - '0') * 10 + (buffer.get(offset + 3) - '0');
+        int DD = (buffer.get(offset + 4) - '0') * 10 + (buffer.get(offset + 5) - '0');
+
+        return isValidBirthNumber(RR, MM, DD, length, checksum);
+    }
+
+    public static boolean isValidRegistrationNumber(CharSequence registrationNumber) {
+
+        if(registrationNumber == null || !(registrationNumber.length() == 6 || registrationNumber.length() == 8)) {
+            return false;
+        }
+
+        for(int i = 0; i < registrationNumber.length(); i++) {
+            if(!Character.isDigit(registrationNumber.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static boolean isValidRegistrationNumber(ByteBuffer buffer, int offset, int length) {
+
+        if(buffer == null || !(length == 6 || length == 8) || offset < 0 || offset > buffer.limit() - length) {
+            return false;
+        }
+
+        for(int i = 0; i < length; i++) {
+            byte b = buffer.get(offset + i);
+            if(b < '0' || b > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int digit(CharSequence value, int index) {
+        return Character.digit(value.charAt(index), 10);
+    }
+
+    private static boolean isValidBirthNumber(int RR, int MM, int DD, int length, int checksum) {
+
+        if(!((MM >= 1 && MM <= 12) || (MM >= 51 && MM <= 62))) {
+            return false;
+        }
+
+        int realMM = ( MM>50 ) ? ( MM-50 ) : MM; //for woman
+        int realRR;
+
+        if(length == 9) {
+
+            if(RR>53) {
+                return false;
+            }
+            realRR = 1900 + RR;
+
+        }
+        else {
+
+            realRR = (RR>53) ? (1900 + RR) : (2000 + RR);
+
+            if(checksum%11!=0) {
+                return false;
+            }
+
+        }
+
+        return DD >= 1 && DD <= lengthOfMonth(realRR, realMM);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+
+        if(month == 2) {
+            return Year.isLeap(year) ? 29 : 28;
+        }
+        if(month == 4 || month == 6 || month == 9 || month == 11) {
+            return 30;
+        }
+        return 31;
+    }
+}
@@ -2,8 +2,6 @@ package objects;
 
 import contracts.AbstractContract;
 
-import java.time.DateTimeException;
-import java.time.LocalDate;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -12,7 +10,8 @@ public class Person {
     private final String id;
     private final LegalForm legalForm;
     private int paidOutAmount;
-    private final Set<AbstractContract> contracts;
+    // allocated on first use, since insured persons and beneficiaries usually hold no contract
+    private Set<AbstractContract> contracts;
 
     public Person(String id) {
 
@@ -32,88 +31,36 @@ public class Person {
 
         this.id = id;
         this.paidOutAmount = 0;
-        this.contracts = new LinkedHashSet<>();
 
     }
 
-    public static boolean isValidBirthNumber(String birthNumber) {
-
-        if(birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10)) {
-            return false;
-        }
-
-        for(char c : birthNumber.toCharArray()) {
-            if(!Character.isDigit(c)) {
-                return false;
-            }
-        }
-
-        int RR = Integer.parseInt(birthNumber.substring(0,2));
-        int MM = Integer.parseInt(birthNumber.substring(2,4));
-        int DD = Integer.parseInt(birthNumber.substring(4,6));
-        
-        if(!((MM >= 1 && MM <= 12) || (MM >= 51 && MM <= 62))) {
-            return false;
-        }
-        
-
-        int realMM = ( MM>50 ) ? ( MM-50 ) : MM; //for woman
-        int realRR;
-
-        if(birthNumber.length() == 9) {
-
-            if(RR>53) {
-                return false;
-            }
-            realRR = 1900 + RR;
-
-        }
-        else {
-
-            realRR = (RR>53) ? (1900 + RR) : (2000 + RR);
-            int sum = 0;
-
-            for(int i=0; i < birthNumber.length(); i++) {
-                sum += (((int)Math.pow(-1,i))*(birthNumber.charAt(i)-'0'));
-            }
-
-            if(sum%11!=0) {
-                return false;
-            }
-
-        }
-
-        try {
-            LocalDate.of(realRR, realMM, DD);
-        }
-        catch( DateTimeException e ) {
-            return false;
-        }
-
-        return true;
+    private Person(String id, LegalForm legalForm) {
+        this.id = id;
+        this.legalForm = legalForm;
     }
 
-    public static boolean isValidRegistrationNumber(String registrationNumber)
-    {
+    // for snapshots, which store persons that were validated when first created
+    public static Person restore(String id, LegalForm legalForm) {
 
-        if(registrationNumber == null || !(registrationNumber.length() == 6 || registrationNumber.length() == 8)) {
-            return false;
+        if(id == null || id.isEmpty() || legalForm == null) {
+            throw new IllegalArgumentException("id or legalForm is invalid");
         }
+        return new Person(id, legalForm);
+    }
 
-        for(char c : registrationNumber.toCharArray()) {
-            if(!Character.isDigit(c)) {
-                return false;
-            }
-        }
+    public static boolean isValidBirthNumber(String birthNumber) {
+        return IdentifierValidator.isValidBirthNumber(birthNumber);
+    }
 
-        return true;
+    public static boolean isValidRegistrationNumber(String registrationNumber) {
+        return IdentifierValidator.isValidRegistrationNumber(registrationNumber);
     }
 
     public String getId() {
         return id;
     }
 
-    public int getPaidOutAmount() {
+    public synchronized int getPaidOutAmount() {
         return paidOutAmount;
     }
 
@@ -122,6 +69,10 @@ public class Person {
     }
 
     public Set<AbstractContract> getContracts() {
+
+        if(contracts == null) {
+            contracts = new LinkedHashSet<>();
+        }
         return contracts;
     }
 
@@ -130,10 +81,10 @@ public class Person {
         if(contract == null) {
             throw new IllegalArgumentException();
         }
-        contracts.add(contract);
+        getContracts().add(contract);
     }
 
-    public void payout(int paidOutAmount) {
+    public synchronized void payout(int paidOutAmount) {
 
         if(paidOutAmount <= 0) {
             throw new IllegalArgumentException();
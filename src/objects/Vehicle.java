@@ -2,8 +2,12 @@ package objects;
 
 public class Vehicle {
 
-    private final String licensePlate;
+    private static final int PLATE_LENGTH = 7;
+    private static final int PLATE_RADIX = 36;
+
+    private final long licensePlateCode;
     private final int originalValue;
+    private String licensePlate;
 
     public Vehicle(String licensePlate, int originalValue) {
 
@@ -15,22 +19,83 @@ public class Vehicle {
             throw new IllegalArgumentException("licensePlate is invalid");
         }
 
-        for(char c : licensePlate.toCharArray()) {
-
-            if(!(Character.isDigit(c) || (c>='A' && c<='Z'))) {
-                throw new IllegalArgumentException("license plate is invalid");
-            }
+        long code = encodeLicensePlate(licensePlate);
+        if(code < 0) {
+            throw new IllegalArgumentException("license plate is invalid");
         }
 
+        this.licensePlateCode = code;
+        this.originalValue = originalValue;
         this.licensePlate = licensePlate;
+    }
+
+    private Vehicle(long licensePlateCode, int originalValue) {
+        this.licensePlateCode = licensePlateCode;
         this.originalValue = originalValue;
     }
 
+    // for snapshots, which store the encoded plate of a vehicle that was validated when first created
+    public static Vehicle restore(long licensePlateCode, int originalValue) {
+
+        if(licensePlateCode < 0 || originalValue <= 0) {
+            throw new IllegalArgumentException("licensePlateCode or originalValue is invalid");
+        }
+        return new Vehicle(licensePlateCode, originalValue);
+    }
+
+    // restored vehicles decode their plate on first use; a racing decode yields an equal string
     public String getLicensePlate() {
-        return licensePlate;
+
+        String plate = licensePlate;
+        if(plate == null) {
+            plate = decodeLicensePlate(licensePlateCode);
+            licensePlate = plate;
+        }
+        return plate;
+    }
+
+    public long getLicensePlateCode() {
+        return licensePlateCode;
     }
 
     public int getOriginalValue() {
         return originalValue;
     }
+
+    public static long encodeLicensePlate(CharSequence licensePlate) {
+
+        if(licensePlate == null || licensePlate.length() != PLATE_LENGTH) {
+            return -1;
+        }
+
+        long code = 0;
+        for(int i = 0; i < PLATE_LENGTH; i++) {
+            char c = licensePlate.charAt(i);
+            int value;
+            if(c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if(c >= 'A' && c <= 'Z') {
+                value = c - 'A' + 10;
+            } else {
+                return -1;
+            }
+            code = code * PLATE_RADIX + value;
+        }
+        return code;
+    }
+
+    public static String decodeLicensePlate(long licensePlateCode) {
+
+        if(licensePlateCode < 0) {
+            throw new IllegalArgumentException("licensePlateCode is invalid");
+        }
+
+        char[] plate = new char[PLATE_LENGTH];
+        for(int i = PLATE_LENGTH - 1; i >= 0; i--) {
+            int value = (int) (licensePlateCode % PLATE_RADIX);
+            plate[i] = (char) (value < 10 ? '0' + value : 'A' + value - 10);
+            licensePlateCode /= PLATE_RADIX;
+        }
+        return new String(plate);
+    }
 }
@@ -0,0 +1,77 @@
+package payment;
+
+import java.time.LocalDateTime;
+
+// holds nothing but its slot; every value, including the listener, lives in the columns and the fields
+// inherited from ContractPaymentData stay unused
+public final class ColumnarPaymentData extends ContractPaymentData {
+
+    private final PaymentDataColumns columns;
+    private final int slot;
+
+    public ColumnarPaymentData(PaymentDataColumns columns, int premium, PremiumPaymentFrequency premiumPaymentFrequency,
+                               LocalDateTime nextPaymentTime, int outstandingBalance) {
+
+        if ( columns == null ){
+            throw new IllegalArgumentException("columns can't be null");
+        }
+        validate(premium, premiumPaymentFrequency, nextPaymentTime);
+
+        this.columns = columns;
+        this.slot = columns.allocate(premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public int getPremium() {
+        return columns.getPremium(slot);
+    }
+
+    @Override
+    public int getOutstandingBalance() {
+        return columns.getOutstandingBalance(slot);
+    }
+
+    @Override
+    public PremiumPaymentFrequency getPremiumPaymentFrequency() {
+        return columns.getFrequency(slot);
+    }
+
+    @Override
+    public LocalDateTime getNextPaymentTime() {
+        return columns.getNextPaymentTime(slot);
+    }
+
+    @Override
+    public void setListener(PaymentDataListener listener) {
+        columns.setListener(slot, listener);
+    }
+
+    @Override
+    protected PaymentDataListener getListener() {
+        return columns.getListener(slot);
+    }
+
+    @Override
+    protected void storePremium(int premium) {
+        columns.setPremium(slot, premium);
+    }
+
+    @Override
+    protected void storeOutstandingBalance(int outstandingBalance) {
+        columns.setOutstandingBalance(slot, outstandingBalance);
+    }
+
+    @Override
+    protected void storePremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
+        columns.setFrequency(slot, premiumPaymentFrequency);
+    }
+
+    @Override
+    protected void storeNextPaymentTime(LocalDateTime nextPaymentTime) {
+        columns.setNextPaymentTime(slot, nextPaymentTime);
+    }
+}
@@ -2,19 +2,20 @@ package payment;
 
 import java.time.LocalDateTime;
 
+// keeps its values in its own fields; ColumnarPaymentData overrides the accessors to read and write
+// one slot in PaymentDataColumns instead
 public class ContractPaymentData {
 
     private int premium;
     private PremiumPaymentFrequency premiumPaymentFrequency;
     private LocalDateTime nextPaymentTime;
     private int outstandingBalance;
+    private PaymentDataListener listener;
 
     public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency,
                                LocalDateTime nextPaymentTime, int outstandingBalance) {
 
-        if ( premium <= 0 || premiumPaymentFrequency==null || nextPaymentTime == null ){
-            throw new IllegalArgumentException("invalid premium or nextPaymentTime or premiumPaymentFrequency");
-        }
+        validate(premium, premiumPaymentFrequency, nextPaymentTime);
 
         this.premium = premium;
         this.premiumPaymentFrequency = premiumPaymentFrequency;
@@ -22,24 +23,67 @@ public class ContractPaymentData {
         this.outstandingBalance = outstandingBalance;
     }
 
+    // for subclasses that store the values elsewhere
+    protected ContractPaymentData() {
+    }
+
     public int getPremium() {
         return premium;
     }
 
+    public int getOutstandingBalance() {
+        return outstandingBalance;
+    }
+
+    public PremiumPaymentFrequency getPremiumPaymentFrequency() {
+        return premiumPaymentFrequency;
+    }
+
+    public LocalDateTime getNextPaymentTime() {
+        return nextPaymentTime;
+    }
+
+    public void setListener(PaymentDataListener listener) {
+        this.listener = listener;
+    }
+
+    protected PaymentDataListener getListener() {
+        return listener;
+    }
+
+    protected void storePremium(int premium) {
+        this.premium = premium;
+    }
+
+    protected void storeOutstandingBalance(int outstandingBalance) {
+        this.outstandingBalance = outstandingBalance;
+    }
+
+    protected void storePremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
+        this.premiumPaymentFrequency = premiumPaymentFrequency;
+    }
+
+    protected void storeNextPaymentTime(LocalDateTime nextPaymentTime) {
+        this.nextPaymentTime = nextPaymentTime;
+    }
+
     public void setPremium(int premium){
 
         if( premium<=0 ) {
             throw new IllegalArgumentException("premium can't be negative or 0");
         }
-        this.premium = premium;
+        storePremium(premium);
     }
 
     public void setOutstandingBalance(int outstandingBalance){
-        this.outstandingBalance = outstandingBalance;
-    }
 
-    public int getOutstandingBalance() {
-        return outstandingBalance;
+        int oldBalance = getOutstandingBalance();
+        storeOutstandingBalance(outstandingBalance);
+
+        PaymentDataListener listener = getListener();
+        if ( listener != null && oldBalance != outstandingBalance ) {
+            listener.balanceChanged(oldBalance, outstandingBalance);
+        }
     }
 
     public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
@@ -47,21 +91,46 @@ public class ContractPaymentData {
         if ( premiumPaymentFrequency==null ){
             throw new IllegalArgumentException("premiumPaymentFrequency can't be null");
         }
-        this.premiumPaymentFrequency = premiumPaymentFrequency;
+
+        PremiumPaymentFrequency oldFrequency = getPremiumPaymentFrequency();
+        storePremiumPaymentFrequency(premiumPaymentFrequency);
+
+        PaymentDataListener listener = getListener();
+        if ( listener != null && oldFrequency != premiumPaymentFrequency ) {
+            listener.frequencyChanged(oldFrequency, premiumPaymentFrequency);
+        }
     }
 
-    public PremiumPaymentFrequency getPremiumPaymentFrequency() {
-        return premiumPaymentFrequency;
+    public void updateNextPaymentTime() {
+        storeNextPaymentTime(getNextPaymentTime().plusMonths(getPremiumPaymentFrequency().getValueInMonths()));
     }
 
-    public LocalDateTime getNextPaymentTime() {
-        return nextPaymentTime;
+    public int chargeDuePremiums(LocalDateTime currentTime) {
+
+        LocalDateTime next = getNextPaymentTime();
+        PremiumPaymentFrequency frequency = getPremiumPaymentFrequency();
+
+        int periods = PremiumAccrual.duePeriods(next, frequency, currentTime);
+        if ( periods > 0 ) {
+            applyDuePremiums(periods, PremiumAccrual.advance(next, frequency, periods));
+        }
+        return periods;
     }
 
-    public void updateNextPaymentTime() {
-        if ( nextPaymentTime==null ){
-            throw new IllegalArgumentException("nextPaymentTime can't be null");
+    public void applyDuePremiums(int periods, LocalDateTime nextPaymentTime) {
+
+        if ( periods <= 0 || nextPaymentTime == null ) {
+            throw new IllegalArgumentException("invalid periods or nextPaymentTime");
+        }
+
+        setOutstandingBalance(getOutstandingBalance() + periods * getPremium());
+        storeNextPaymentTime(nextPaymentTime);
+    }
+
+    static void validate(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime) {
+
+        if ( premium <= 0 || premiumPaymentFrequency==null || nextPaymentTime == null ){
+            throw new IllegalArgumentException("invalid premium or nextPaymentTime or premiumPaymentFrequency");
         }
-        this.nextPaymentTime = nextPaymentTime.plusMonths(premiumPaymentFrequency.getValueInMonths());
     }
 }
@@ -0,0 +1,124 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public class PaymentDataColumns {
+
+    // slots live in fixed-size chunks, so growing never copies values that other threads may be writing
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private volatile Chunk[] chunks;
+    private int size;
+
+    public PaymentDataColumns() {
+        this(CHUNK_SIZE);
+    }
+
+    public PaymentDataColumns(int initialCapacity) {
+
+        if ( initialCapacity <= 0 ) {
+            throw new IllegalArgumentException("initialCapacity must be > 0");
+        }
+
+        Chunk[] initial = new Chunk[(initialCapacity + CHUNK_MASK) >>> CHUNK_SHIFT];
+        for ( int i = 0; i < initial.length; i++ ) {
+            initial[i] = new Chunk();
+        }
+        this.chunks = initial;
+        this.size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return chunks.length * CHUNK_SIZE;
+    }
+
+    synchronized int allocate(int premium, PremiumPaymentFrequency frequency, LocalDateTime nextPaymentTime,
+                              int outstandingBalance) {
+
+        if ( size == capacity() ) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length * 2);
+            for ( int i = chunks.length; i < grown.length; i++ ) {
+                grown[i] = new Chunk();
+            }
+            chunks = grown;
+        }
+
+        int slot = size++;
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        chunk.premiums[index] = premium;
+        chunk.frequencies[index] = (byte) frequency.ordinal();
+        chunk.nextPaymentSeconds[index] = nextPaymentTime.toEpochSecond(ZoneOffset.UTC);
+        chunk.nextPaymentNanos[index] = nextPaymentTime.getNano();
+        chunk.outstandingBalances[index] = outstandingBalance;
+        return slot;
+    }
+
+    int getPremium(int slot) {
+        return chunk(slot).premiums[slot & CHUNK_MASK];
+    }
+
+    void setPremium(int slot, int premium) {
+        chunk(slot).premiums[slot & CHUNK_MASK] = premium;
+    }
+
+    PremiumPaymentFrequency getFrequency(int slot) {
+        return FREQUENCIES[chunk(slot).frequencies[slot & CHUNK_MASK]];
+    }
+
+    void setFrequency(int slot, PremiumPaymentFrequency frequency) {
+        chunk(slot).frequencies[slot & CHUNK_MASK] = (byte) frequency.ordinal();
+    }
+
+    LocalDateTime getNextPaymentTime(int slot) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        return LocalDateTime.ofEpochSecond(chunk.nextPaymentSeconds[index], chunk.nextPaymentNanos[index], ZoneOffset.UTC);
+    }
+
+    void setNextPaymentTime(int slot, LocalDateTime nextPaymentTime) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        chunk.nextPaymentSeconds[index] = nextPaymentTime.toEpochSecond(ZoneOffset.UTC);
+        chunk.nextPaymentNanos[index] = nextPaymentTime.getNano();
+    }
+
+    int getOutstandingBalance(int slot) {
+        return chunk(slot).outstandingBalances[slot & CHUNK_MASK];
+    }
+
+    void setOutstandingBalance(int slot, int outstandingBalance) {
+        chunk(slot).outstandingBalances[slot & CHUNK_MASK] = outstandingBalance;
+    }
+
+    PaymentDataListener getListener(int slot) {
+        return chunk(slot).listeners[slot & CHUNK_MASK];
+    }
+
+    void setListener(int slot, PaymentDataListener listener) {
+        chunk(slot).listeners[slot & CHUNK_MASK] = listener;
+    }
+
+    private Chunk chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static final class Chunk {
+
+        private final int[] premiums = new int[CHUNK_SIZE];
+        private final byte[] frequencies = new byte[CHUNK_SIZE];
+        private final long[] nextPaymentSeconds = new long[CHUNK_SIZE];
+        private final int[] nextPaymentNanos = new int[CHUNK_SIZE];
+        private final int[] outstandingBalances = new int[CHUNK_SIZE];
+        private final PaymentDataListener[] listeners = new PaymentDataListener[CHUNK_SIZE];
+    }
+}
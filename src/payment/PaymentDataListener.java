@@ -0,0 +1,8 @@
+package payment;
+
+public interface PaymentDataListener {
+
+    void balanceChanged(int oldBalance, int newBalance);
+
+    void frequencyChanged(PremiumPaymentFrequency oldFrequency, PremiumPaymentFrequency newFrequency);
+}
@@ -4,14 +4,25 @@ import company.InsuranceCompany;
 import contracts.AbstractContract;
 import contracts.InvalidContractException;
 import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import metrics.MasterPaymentEvent;
+import persistence.Journal;
 
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class PaymentHandler {
 
-    private final Map<AbstractContract, Set<PaymentInstance>> paymentHistory;
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<AbstractContract, PaymentLog> paymentHistory;
     private final InsuranceCompany insurer;
+    private final ReentrantLock[] locks;
+    private final ReentrantReadWriteLock bookLock;
 
     public PaymentHandler(InsuranceCompany insurer) {
 
@@ -19,29 +30,63 @@ public class PaymentHandler {
             throw new IllegalArgumentException("insurer is invalid");
         }
         this.insurer = insurer;
-        this.paymentHistory = new HashMap<>();
+        this.paymentHistory = new ConcurrentHashMap<>();
+        this.locks = new ReentrantLock[LOCK_STRIPES];
+        for ( int i = 0; i < locks.length; i++ ) {
+            locks[i] = new ReentrantLock();
+        }
+        this.bookLock = new ReentrantReadWriteLock();
     }
 
-    public Map<AbstractContract,Set<PaymentInstance>> getPaymentHistory() {
+    public Map<AbstractContract, PaymentLog> getPaymentHistory() {
         return paymentHistory;
     }
 
+    // contract operations hold the read side together with the contract's stripe and journal inside it;
+    // whole-book operations (billing runs, moves, snapshots) hold the write side, so the journal order
+    // always matches the order in which the book was changed
+    public ReentrantReadWriteLock getBookLock() {
+        return bookLock;
+    }
+
+    // children share the stripe of their master, since a master payment changes their balances
+    public ReentrantLock lockFor(AbstractContract contract) {
+
+        AbstractContract root = contract;
+        if ( contract instanceof SingleVehicleContract child && child.getMasterContract() != null ) {
+            root = child.getMasterContract();
+        }
+
+        int hash = root.getContractNumber().hashCode();
+        hash ^= (hash >>> 16);
+        return locks[hash & (locks.length - 1)];
+    }
+
     public void pay(AbstractContract contract, int amount) {
 
         if ( contract == null || amount <=0 ){
             throw new IllegalArgumentException("contract or amount is invalid");
         }
-        if ( !contract.isActive() || this.insurer != contract.getInsurer() ){
+        if ( this.insurer != contract.getInsurer() ){
             throw new InvalidContractException("contract is invalid");
         }
 
-        contract.getContractPaymentData().setOutstandingBalance(contract.getContractPaymentData().getOutstandingBalance() - amount);
-        PaymentInstance paymentInstance = new PaymentInstance(
-            insurer.getCurrentTime(),
-            amount
-        );
-
-        paymentHistory.computeIfAbsent(contract, _ -> new TreeSet<>()).add(paymentInstance);
+        long start = insurer.getMetrics().startTimer();
+        long seq;
+        bookLock.readLock().lock();
+        ReentrantLock lock = lockFor(contract);
+        lock.lock();
+        try {
+            if ( !contract.isActive() ){
+                throw new InvalidContractException("contract is invalid");
+            }
+            seq = applyPayment(contract, amount, insurer.getCurrentTime());
+        } finally {
+            lock.unlock();
+            bookLock.readLock().unlock();
+        }
+        awaitCommit(seq);
+        insurer.getMetrics().recordPayment(start);
     }
 
     public void pay(MasterVehicleContract contract, int amount) {
@@ -49,21 +94,184 @@ public class PaymentHandler {
             throw new IllegalArgumentException("contract or amount is invalid");
         }
 
-        int originalAmount = amount;
+        if (this.insurer != contract.getInsurer()) {
+            throw new InvalidContractException("contract is invalid");
+        }
+
+        long start = insurer.getMetrics().startTimer();
+        long seq;
+        bookLock.readLock().lock();
+        ReentrantLock lock = lockFor(contract);
+        lock.lock();
+        try {
+            if (!contract.isActive()) {
+                throw new InvalidContractException("contract is invalid");
+            }
+            if (contract.getChildContracts().isEmpty()) {
+                throw new InvalidContractException("childContracts are empty");
+            }
+            seq = applyMasterPayment(contract, amount, insurer.getCurrentTime());
+        } finally {
+            lock.unlock();
+            bookLock.readLock().unlock();
+        }
+        awaitCommit(seq);
+        insurer.getMetrics().recordPayment(start);
+    }
+
+    public int chargeDuePremiums(AbstractContract contract, LocalDateTime currentTime) {
 
-        if (!contract.isActive() || this.insurer != contract.getInsurer()) {
+        ReentrantLock lock = lockFor(contract);
+        lock.lock();
+        try {
+            return contract.getContractPaymentData().chargeDuePremiums(currentTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // accrual shares the payment lock, otherwise a concurrent payment can be lost in the balance update
+    public void applyDuePremiums(AbstractContract contract, int periods, LocalDateTime nextPaymentTime) {
+
+        ReentrantLock lock = lockFor(contract);
+        lock.lock();
+        try {
+            contract.getContractPaymentData().applyDuePremiums(periods, nextPaymentTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restorePayment(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+
+        if ( contract == null || paymentTime == null || amount <= 0 ) {
+            throw new IllegalArgumentException("contract, paymentTime or amount is invalid");
+        }
+        if ( this.insurer != contract.getInsurer() ) {
             throw new InvalidContractException("contract is invalid");
         }
-        if (contract.getChildContracts().isEmpty()) {
-            throw new InvalidContractException("childContracts are empty");
+
+        paymentHistory.computeIfAbsent(contract, _ -> new PaymentLog()).append(paymentTime, amount);
+    }
+
+    public List<PaymentResult> payAll(List<PaymentRecord> records) {
+
+        if ( records == null ) {
+            throw new IllegalArgumentException("records can't be null");
         }
 
-        for (AbstractContract child : contract.getChildContracts()) {
+        PaymentResult[] results = new PaymentResult[records.size()];
+        long seq = 0;
+
+        // records of one contract are chained through nextRecord; a group holds the first and last index
+        int[] nextRecord = new int[results.length];
+        Map<AbstractContract, int[]> groups = new IdentityHashMap<>();
+        List<AbstractContract> contracts = new ArrayList<>();
 
-            if (!child.isActive()) {
+        for ( int i = 0; i < results.length; i++ ) {
+            PaymentRecord record = records.get(i);
+            String reason = validateRecord(record);
+            AbstractContract contract = reason == null ? insurer.getContract(record.getContractNumber()) : null;
+            if ( reason == null && contract == null ) {
+                reason = "contract not found";
+            }
+            if ( reason != null ) {
+                results[i] = new PaymentResult(record, reason);
+                insurer.getMetrics().recordRejectedPayment();
                 continue;
             }
 
+            int[] group = groups.get(contract);
+            if ( group == null ) {
+                groups.put(contract, new int[] {i, i});
+                contracts.add(contract);
+            } else {
+                nextRecord[group[1]] = i;
+                group[1] = i;
+            }
+        }
+
+        for ( AbstractContract contract : contracts ) {
+            int[] group = groups.get(contract);
+
+            bookLock.readLock().lock();
+            ReentrantLock lock = lockFor(contract);
+            lock.lock();
+            try {
+                for ( int i = group[0]; ; i = nextRecord[i] ) {
+                    PaymentRecord record = records.get(i);
+                    String reason = rejectionReason(contract);
+                    if ( reason == null ) {
+                        long start = insurer.getMetrics().startTimer();
+                        if ( contract instanceof MasterVehicleContract master ) {
+                            seq = Math.max(seq, applyMasterPayment(master, record.getAmount(), record.getPaymentTime()));
+                        } else {
+                            seq = Math.max(seq, applyPayment(contract, record.getAmount(), record.getPaymentTime()));
+                        }
+                        insurer.getMetrics().recordPayment(start);
+                    } else {
+                        insurer.getMetrics().recordRejectedPayment();
+                    }
+                    results[i] = new PaymentResult(record, reason);
+                    if ( i == group[1] ) {
+                        break;
+                    }
+                }
+            } finally {
+                lock.unlock();
+                bookLock.readLock().unlock();
+            }
+        }
+
+        awaitCommit(seq);
+        return List.of(results);
+    }
+
+    private String validateRecord(PaymentRecord record) {
+
+        if ( record == null ) {
+            return "record is null";
+        }
+        if ( record.getContractNumber() == null || record.getContractNumber().isEmpty() ) {
+            return "contractNumber is invalid";
+        }
+        if ( record.getAmount() <= 0 ) {
+            return "amount must be > 0";
+        }
+        if ( record.getPaymentTime() == null ) {
+            return "paymentTime is invalid";
+        }
+        return null;
+    }
+
+    private String rejectionReason(AbstractContract contract) {
+
+        if ( !contract.isActive() ) {
+            return "contract is inactive";
+        }
+        if ( contract instanceof MasterVehicleContract master && master.getChildContracts().isEmpty() ) {
+            return "childContracts are empty";
+        }
+        return null;
+    }
+
+    private long applyPayment(AbstractContract contract, int amount, LocalDateTime paymentTime) {
+
+        contract.getContractPaymentData().setOutstandingBalance(contract.getContractPaymentData().getOutstandingBalance() - amount);
+        paymentHistory.computeIfAbsent(contract, _ -> new PaymentLog()).append(paymentTime, amount);
+        return journal(contract, amount, paymentTime);
+    }
+
+    private long applyMasterPayment(MasterVehicleContract contract, int amount, LocalDateTime paymentTime) {
+
+        MasterPaymentEvent event = new MasterPaymentEvent();
+        event.begin();
+
+        int originalAmount = amount;
+        List<SingleVehicleContract> children = contract.getActiveChildContracts();
+
+        for (SingleVehicleContract child : children) {
+
             ContractPaymentData paymentData = child.getContractPaymentData();
             int balance = paymentData.getOutstandingBalance();
 
@@ -79,37 +287,58 @@ public class PaymentHandler {
             }
         }
 
-        while( amount > 0 ) {
-            boolean paid = false;
-            for (AbstractContract child : contract.getChildContracts()){
+        if ( amount > 0 && !children.isEmpty() ) {
+
+            long premiumsPerRound = 0;
+            for (SingleVehicleContract child : children) {
+                premiumsPerRound += child.getContractPaymentData().getPremium();
+            }
 
-                if ( !child.isActive() ) {
-                    continue;
+            int rounds = (int) (amount / premiumsPerRound);
+            if ( rounds > 0 ) {
+                for (SingleVehicleContract child : children) {
+                    ContractPaymentData paymentData = child.getContractPaymentData();
+                    paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() - rounds * paymentData.getPremium());
                 }
+                amount -= (int) (rounds * premiumsPerRound);
+            }
 
-                ContractPaymentData paymentData = child.getContractPaymentData();
-                int premium = paymentData.getPremium();
-                if ( amount >= premium ){
-                    paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() - premium);
-                    amount -= premium;
-                    paid = true;
-                } else {
-                    paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() - amount);
-                    amount = 0;
-                    paid = true;
+            for (SingleVehicleContract child : children) {
+
+                if ( amount == 0 ) {
                     break;
                 }
+
+                ContractPaymentData paymentData = child.getContractPaymentData();
+                int payment = Math.min(amount, paymentData.getPremium());
+                paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() - payment);
+                amount -= payment;
             }
-            if ( !paid ) {
-                break;
-            }
         }
 
-        PaymentInstance paymentInstance = new PaymentInstance(
-                insurer.getCurrentTime(),
-                originalAmount
-        );
-        paymentHistory.computeIfAbsent(contract, _ -> new TreeSet<>()).add(paymentInstance);
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.contractNumber = contract.getContractNumber();
+            event.amount = originalAmount;
+            event.activeChildContracts = children.size();
+            event.commit();
+        }
+
+        paymentHistory.computeIfAbsent(contract, _ -> new PaymentLog()).append(paymentTime, originalAmount);
+        return journal(contract, originalAmount, paymentTime);
+    }
+
+    private long journal(AbstractContract contract, int amount, LocalDateTime paymentTime) {
+
+        Journal journal = insurer.getJournal();
+        return journal == null ? 0 : journal.pay(contract.getContractNumber(), amount, paymentTime);
+    }
+
+    private void awaitCommit(long seq) {
+
+        Journal journal = insurer.getJournal();
+        if ( journal != null && seq > 0 ) {
+            journal.awaitCommit(seq);
+        }
     }
-    
 }
@@ -0,0 +1,144 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PaymentLog {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] epochSeconds;
+    private int[] nanos;
+    private int[] amounts;
+    private int size;
+
+    public PaymentLog() {
+
+        this.epochSeconds = new long[INITIAL_CAPACITY];
+        this.nanos = new int[INITIAL_CAPACITY];
+        this.amounts = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    public void append(LocalDateTime paymentTime, int paymentAmount) {
+
+        if( paymentTime == null || paymentAmount <= 0 ) {
+            throw new IllegalArgumentException("paymentTime(paymentAmount) is invalid");
+        }
+
+        long second = paymentTime.toEpochSecond(ZoneOffset.UTC);
+        int nano = paymentTime.getNano();
+
+        if( size == amounts.length ) {
+            int capacity = size * 2;
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+
+        int position = size;
+        if( size > 0 && compare(size - 1, second, nano) > 0 ) {
+            position = upperBound(second, nano);
+            System.arraycopy(epochSeconds, position, epochSeconds, position + 1, size - position);
+            System.arraycopy(nanos, position, nanos, position + 1, size - position);
+            System.arraycopy(amounts, position, amounts, position + 1, size - position);
+        }
+
+        epochSeconds[position] = second;
+        nanos[position] = nano;
+        amounts[position] = paymentAmount;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public LocalDateTime getPaymentTime(int index) {
+        checkIndex(index);
+        return LocalDateTime.ofEpochSecond(epochSeconds[index], nanos[index], ZoneOffset.UTC);
+    }
+
+    public int getPaymentAmount(int index) {
+        checkIndex(index);
+        return amounts[index];
+    }
+
+    public PaymentInstance get(int index) {
+        return new PaymentInstance(getPaymentTime(index), getPaymentAmount(index));
+    }
+
+    public List<PaymentInstance> getPayments() {
+        return collect(0, size);
+    }
+
+    public List<PaymentInstance> getPayments(LocalDateTime from, LocalDateTime to) {
+
+        if( from == null || to == null ) {
+            throw new IllegalArgumentException("from or to can't be null");
+        }
+
+        int start = lowerBound(from.toEpochSecond(ZoneOffset.UTC), from.getNano());
+        int end = lowerBound(to.toEpochSecond(ZoneOffset.UTC), to.getNano());
+        return collect(start, Math.max(start, end));
+    }
+
+    private List<PaymentInstance> collect(int start, int end) {
+
+        List<PaymentInstance> payments = new ArrayList<>(end - start);
+        for( int i = start; i < end; i++ ) {
+            payments.add(get(i));
+        }
+        return payments;
+    }
+
+    private int lowerBound(long second, int nano) {
+
+        int low = 0;
+        int high = size;
+        while( low < high ) {
+            int mid = (low + high) >>> 1;
+            if( compare(mid, second, nano) < 0 ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(long second, int nano) {
+
+        int low = 0;
+        int high = size;
+        while( low < high ) {
+            int mid = (low + high) >>> 1;
+            if( compare(mid, second, nano) <= 0 ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int index, long second, int nano) {
+
+        int result = Long.compare(epochSeconds[index], second);
+        return result != 0 ? result : Integer.compare(nanos[index], nano);
+    }
+
+    private void checkIndex(int index) {
+
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package payment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+public final class PremiumAccrual {
+
+    private PremiumAccrual() {
+    }
+
+    public static int duePeriods(LocalDateTime nextPaymentTime, PremiumPaymentFrequency frequency,
+                                 LocalDateTime currentTime) {
+
+        if ( nextPaymentTime == null || frequency == null || currentTime == null ) {
+            throw new IllegalArgumentException("nextPaymentTime, frequency or currentTime can't be null");
+        }
+
+        if ( nextPaymentTime.isAfter(currentTime) ) {
+            return 0;
+        }
+
+        int months = frequency.getValueInMonths();
+        long start = monthIndex(nextPaymentTime);
+        long end = monthIndex(currentTime);
+        int last = (int) ((end - start) / months);
+
+        if ( start + (long) last * months < end ) {
+            return last + 1;
+        }
+
+        int day = dayOfMonth(nextPaymentTime, months, last);
+        if ( day < currentTime.getDayOfMonth() ) {
+            return last + 1;
+        }
+        if ( day == currentTime.getDayOfMonth()
+                && !nextPaymentTime.toLocalTime().isAfter(currentTime.toLocalTime()) ) {
+            return last + 1;
+        }
+        return last;
+    }
+
+    public static LocalDateTime advance(LocalDateTime nextPaymentTime, PremiumPaymentFrequency frequency,
+                                        int periods) {
+
+        if ( nextPaymentTime == null || frequency == null || periods < 0 ) {
+            throw new IllegalArgumentException("invalid nextPaymentTime, frequency or periods");
+        }
+
+        if ( periods == 0 ) {
+            return nextPaymentTime;
+        }
+
+        int months = frequency.getValueInMonths();
+        long index = monthIndex(nextPaymentTime) + (long) periods * months;
+        int year = (int) Math.floorDiv(index, 12);
+        int month = Math.floorMod(index, 12) + 1;
+
+        return LocalDateTime.of(
+                LocalDate.of(year, month, dayOfMonth(nextPaymentTime, months, periods)),
+                nextPaymentTime.toLocalTime()
+        );
+    }
+
+    private static long monthIndex(LocalDateTime time) {
+        return time.getYear() * 12L + time.getMonthValue() - 1;
+    }
+
+    // plusMonths clamps to the month end and the clamped day sticks for every later period;
+    // every frequency divides a year, so two years of periods visit each month the schedule ever reaches
+    private static int dayOfMonth(LocalDateTime nextPaymentTime, int months, int periods) {
+
+        int day = nextPaymentTime.getDayOfMonth();
+        long start = monthIndex(nextPaymentTime);
+        int steps = Math.min(periods, 24 / months);
+
+        for ( int i = 1; i <= steps && day > 28; i++ ) {
+            long index = start + (long) i * months;
+            int length = Month.of(Math.floorMod(index, 12) + 1).length(Year.isLeap(Math.floorDiv(index, 12)));
+            day = Math.min(day, length);
+        }
+        return day;
+    }
+}
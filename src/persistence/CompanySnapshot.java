@@ -0,0 +1,533 @@
+package persistence;
+
+import company.DelinquencyIndex;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.AbstractVehicleContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.LegalForm;
+import objects.Person;
+import objects.Vehicle;
+import payment.ColumnarPaymentData;
+import payment.ContractPaymentData;
+import payment.PaymentDataColumns;
+import payment.PaymentLog;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+
+public final class CompanySnapshot {
+
+    private static final int MAGIC = 0x49435331;
+    private static final int VERSION = 4;
+
+    private static final byte SINGLE_VEHICLE = 1;
+    private static final byte TRAVEL = 2;
+    private static final byte MASTER_VEHICLE = 3;
+
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    private static final LegalForm[] LEGAL_FORMS = LegalForm.values();
+
+    private CompanySnapshot() {
+    }
+
+    public static void write(InsuranceCompany company, Path path) {
+
+        if ( company == null || path == null ) {
+            throw new IllegalArgumentException("company or path can't be null");
+        }
+
+        // the snapshot is written next to the target, forced to disk and then renamed over it,
+        // so a crash leaves either the previous snapshot or the complete new one
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        // contract operations and billing runs wait while the book is written,
+        // so the snapshot matches the journal position stored with it
+        ReentrantReadWriteLock.WriteLock bookLock = company.getHandler().getBookLock().writeLock();
+        bookLock.lock();
+        try {
+            writeBook(company, temp);
+        } finally {
+            bookLock.unlock();
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch ( IOException e ) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBook(InsuranceCompany company, Path temp) {
+
+        Map<Person, Integer> persons = collectPersons(company);
+
+        try ( FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING) ) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeTime(out, company.getCurrentTime());
+            out.writeLong(journalPosition(company));
+
+            out.writeInt(persons.size());
+            for ( Person person : persons.keySet() ) {
+                writeString(out, person.getId());
+                out.writeByte(person.getLegalForm().ordinal());
+                out.writeInt(person.getPaidOutAmount());
+            }
+
+            out.writeInt(company.getContracts().size());
+            for ( AbstractContract contract : company.getContracts() ) {
+                writeContract(out, contract, persons);
+            }
+
+            List<Map.Entry<AbstractContract, PaymentLog>> history = new ArrayList<>();
+            for ( Map.Entry<AbstractContract, PaymentLog> entry : company.getHandler().getPaymentHistory().entrySet() ) {
+                if ( company.getContract(entry.getKey().getContractNumber()) == entry.getKey() ) {
+                    history.add(entry);
+                }
+            }
+
+            out.writeInt(history.size());
+            for ( Map.Entry<AbstractContract, PaymentLog> entry : history ) {
+                PaymentLog log = entry.getValue();
+                writeString(out, entry.getKey().getContractNumber());
+                out.writeInt(log.size());
+                for ( int i = 0; i < log.size(); i++ ) {
+                    writeTime(out, log.getPaymentTime(i));
+                    out.writeInt(log.getPaymentAmount(i));
+                }
+            }
+
+            writeDelinquency(out, company);
+
+            out.flush();
+            channel.force(true);
+        } catch ( IOException e ) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the journal is synced first, so the stored position never points past what is on disk
+    private static long journalPosition(InsuranceCompany company) {
+
+        Journal journal = company.getJournal();
+        if ( journal == null ) {
+            return company.getJournalPosition();
+        }
+        journal.sync();
+        return journal.position();
+    }
+
+    public static InsuranceCompany read(Path path) {
+        return read(path, null);
+    }
+
+    public static InsuranceCompany read(Path path, PaymentDataColumns paymentDataColumns) {
+
+        if ( path == null ) {
+            throw new IllegalArgumentException("path can't be null");
+        }
+
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+
+            MappedInput in = new MappedInput(channel);
+
+            if ( in.getInt() != MAGIC || in.getInt() != VERSION ) {
+                throw new IllegalArgumentException("unsupported snapshot format");
+            }
+
+            InsuranceCompany company = new InsuranceCompany(readTime(in), paymentDataColumns);
+            company.setJournalPosition(in.getLong());
+
+            Person[] persons = new Person[in.getInt()];
+            for ( int i = 0; i < persons.length; i++ ) {
+                String id = readString(in);
+                LegalForm legalForm = LEGAL_FORMS[in.get()];
+                persons[i] = company.getPersonRegistry().register(Person.restore(id, legalForm));
+                int paidOutAmount = in.getInt();
+                if ( paidOutAmount > 0 ) {
+                    persons[i].payout(paidOutAmount);
+                }
+            }
+
+            int contractCount = in.getInt();
+            for ( int i = 0; i < contractCount; i++ ) {
+                readContract(in, company, persons);
+            }
+
+            int historyCount = in.getInt();
+            for ( int i = 0; i < historyCount; i++ ) {
+                AbstractContract contract = company.getContract(readString(in));
+                int payments = in.getInt();
+                for ( int j = 0; j < payments; j++ ) {
+                    company.getHandler().restorePayment(contract, readTime(in), in.getInt());
+                }
+            }
+
+            readDelinquency(in, company);
+
+            return company;
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the settings and what is still queued under them; indexing the restored contracts would otherwise
+    // re-queue every delinquent contract under the defaults, with the snapshot time as its crossing
+    private static void writeDelinquency(DataOutputStream out, InsuranceCompany company) throws IOException {
+
+        DelinquencyIndex index = company.getDelinquencyIndex();
+        out.writeInt(index.getDunningThreshold());
+        Duration gracePeriod = index.getGracePeriod();
+        out.writeLong(gracePeriod == null ? -1 : gracePeriod.getSeconds());
+        out.writeInt(gracePeriod == null ? 0 : gracePeriod.getNano());
+
+        List<AbstractContract> dunning = new ArrayList<>();
+        for ( AbstractContract contract : index.getPendingDunning() ) {
+            if ( company.getContract(contract.getContractNumber()) == contract ) {
+                dunning.add(contract);
+            }
+        }
+        out.writeInt(dunning.size());
+        for ( AbstractContract contract : dunning ) {
+            writeString(out, contract.getContractNumber());
+        }
+
+        List<DelinquencyIndex.Crossing> crossings = index.getPendingCrossings();
+        out.writeInt(crossings.size());
+        for ( DelinquencyIndex.Crossing crossing : crossings ) {
+            writeString(out, crossing.contract().getContractNumber());
+            writeTime(out, crossing.time());
+        }
+    }
+
+    private static void readDelinquency(MappedInput in, InsuranceCompany company) {
+
+        DelinquencyIndex index = company.getDelinquencyIndex();
+        index.setDunningThreshold(in.getInt());
+        long graceSeconds = in.getLong();
+        int graceNanos = in.getInt();
+        index.setGracePeriod(graceSeconds < 0 ? null : Duration.ofSeconds(graceSeconds, graceNanos));
+
+        List<AbstractContract> dunning = new ArrayList<>();
+        int dunningCount = in.getInt();
+        for ( int i = 0; i < dunningCount; i++ ) {
+            dunning.add(company.getContract(readString(in)));
+        }
+
+        List<DelinquencyIndex.Crossing> crossings = new ArrayList<>();
+        int crossingCount = in.getInt();
+        for ( int i = 0; i < crossingCount; i++ ) {
+            AbstractContract contract = company.getContract(readString(in));
+            crossings.add(new DelinquencyIndex.Crossing(contract, readTime(in)));
+        }
+        index.restorePending(dunning, crossings);
+    }
+
+    private static Map<Person, Integer> collectPersons(InsuranceCompany company) {
+
+        Map<Person, Integer> persons = new LinkedHashMap<>();
+
+        for ( AbstractContract contract : company.getContracts() ) {
+            addPerson(persons, contract.getPolicyHolder());
+            if ( contract instanceof AbstractVehicleContract vehicleContract ) {
+                addPerson(persons, vehicleContract.getBeneficiary());
+            }
+            if ( contract instanceof TravelContract travelContract ) {
+                for ( Person person : travelContract.getInsuredPersons() ) {
+                    addPerson(persons, person);
+                }
+            }
+            if ( contract instanceof MasterVehicleContract master ) {
+                for ( SingleVehicleContract child : master.getChildContracts() ) {
+                    addPerson(persons, child.getBeneficiary());
+                }
+            }
+        }
+        return persons;
+    }
+
+    private static void addPerson(Map<Person, Integer> persons, Person person) {
+
+        if ( person != null && !persons.containsKey(person) ) {
+            persons.put(person, persons.size());
+        }
+    }
+
+    private static void writeContract(DataOutputStream out, AbstractContract contract,
+                                      Map<Person, Integer> persons) throws IOException {
+
+        if ( contract instanceof MasterVehicleContract master ) {
+            out.writeByte(MASTER_VEHICLE);
+            writeString(out, master.getContractNumber());
+            out.writeInt(persons.get(master.getPolicyHolder()));
+            writePersonIndex(out, master.getBeneficiary(), persons);
+            out.writeInt(master.getCoverageAmount());
+            out.writeBoolean(master.isActive());
+
+            out.writeInt(master.getChildContracts().size());
+            for ( SingleVehicleContract child : master.getChildContracts() ) {
+                writeSingleVehicleContract(out, child, persons);
+            }
+        } else if ( contract instanceof SingleVehicleContract single ) {
+            out.writeByte(SINGLE_VEHICLE);
+            writeSingleVehicleContract(out, single, persons);
+        } else if ( contract instanceof TravelContract travel ) {
+            out.writeByte(TRAVEL);
+            writeString(out, travel.getContractNumber());
+            out.writeInt(persons.get(travel.getPolicyHolder()));
+            out.writeInt(travel.getCoverageAmount());
+            out.writeBoolean(travel.isActive());
+            writePaymentData(out, travel.getContractPaymentData());
+
+            out.writeInt(travel.getInsuredPersons().size());
+            for ( Person person : travel.getInsuredPersons() ) {
+                out.writeInt(persons.get(person));
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported contract type " + contract.getClass().getName());
+        }
+    }
+
+    private static void writeSingleVehicleContract(DataOutputStream out, SingleVehicleContract contract,
+                                                   Map<Person, Integer> persons) throws IOException {
+
+        writeString(out, contract.getContractNumber());
+        out.writeInt(persons.get(contract.getPolicyHolder()));
+        writePersonIndex(out, contract.getBeneficiary(), persons);
+        out.writeInt(contract.getCoverageAmount());
+        out.writeBoolean(contract.isActive());
+        writePaymentData(out, contract.getContractPaymentData());
+        out.writeLong(contract.getInsuredVehicle().getLicensePlateCode());
+        out.writeInt(contract.getInsuredVehicle().getOriginalValue());
+    }
+
+    private static void writePersonIndex(DataOutputStream out, Person person,
+                                         Map<Person, Integer> persons) throws IOException {
+        out.writeInt(person == null ? -1 : persons.get(person));
+    }
+
+    private static void writePaymentData(DataOutputStream out, ContractPaymentData paymentData) throws IOException {
+
+        out.writeInt(paymentData.getPremium());
+        out.writeByte(paymentData.getPremiumPaymentFrequency().ordinal());
+        writeTime(out, paymentData.getNextPaymentTime());
+        out.writeInt(paymentData.getOutstandingBalance());
+    }
+
+    private static void readContract(MappedInput in, InsuranceCompany company, Person[] persons) {
+
+        byte type = in.get();
+        List<AbstractContract> inactive = new ArrayList<>();
+
+        if ( type == SINGLE_VEHICLE ) {
+            company.restoreContract(readSingleVehicleContract(in, company, persons, inactive));
+        } else if ( type == TRAVEL ) {
+            String contractNumber = readString(in);
+            Person policyHolder = persons[in.getInt()];
+            int coverageAmount = in.getInt();
+            boolean active = in.get() != 0;
+            ContractPaymentData paymentData = readPaymentData(in, company);
+
+            Set<Person> insuredPersons = new LinkedHashSet<>();
+            int insuredCount = in.getInt();
+            for ( int i = 0; i < insuredCount; i++ ) {
+                insuredPersons.add(persons[in.getInt()]);
+            }
+
+            TravelContract contract = new TravelContract(contractNumber, company, policyHolder, paymentData,
+                    coverageAmount, insuredPersons);
+            company.restoreContract(contract);
+            if ( !active ) {
+                inactive.add(contract);
+            }
+        } else if ( type == MASTER_VEHICLE ) {
+            String contractNumber = readString(in);
+            Person policyHolder = persons[in.getInt()];
+            Person beneficiary = readPerson(in, persons);
+            int coverageAmount = in.getInt();
+            boolean active = in.get() != 0;
+
+            MasterVehicleContract master = new MasterVehicleContract(contractNumber, company, beneficiary, policyHolder);
+            master.setCoverageAmount(coverageAmount);
+            company.restoreContract(master);
+
+            int childCount = in.getInt();
+            for ( int i = 0; i < childCount; i++ ) {
+                company.restoreChildContract(master, readSingleVehicleContract(in, company, persons, inactive));
+            }
+
+            if ( childCount == 0 && !active ) {
+                inactive.add(master);
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported contract type " + type);
+        }
+
+        for ( AbstractContract contract : inactive ) {
+            contract.setInactive();
+        }
+    }
+
+    private static SingleVehicleContract readSingleVehicleContract(MappedInput in, InsuranceCompany company,
+                                                                   Person[] persons, List<AbstractContract> inactive) {
+
+        String contractNumber = readString(in);
+        Person policyHolder = persons[in.getInt()];
+        Person beneficiary = readPerson(in, persons);
+        int coverageAmount = in.getInt();
+        boolean active = in.get() != 0;
+        ContractPaymentData paymentData = readPaymentData(in, company);
+        Vehicle vehicle = Vehicle.restore(in.getLong(), in.getInt());
+
+        SingleVehicleContract contract = new SingleVehicleContract(contractNumber, company, beneficiary, policyHolder,
+                paymentData, coverageAmount, vehicle);
+        if ( !active ) {
+            inactive.add(contract);
+        }
+        return contract;
+    }
+
+    private static Person readPerson(MappedInput in, Person[] persons) {
+
+        int index = in.getInt();
+        return index < 0 ? null : persons[index];
+    }
+
+    private static ContractPaymentData readPaymentData(MappedInput in, InsuranceCompany company) {
+
+        int premium = in.getInt();
+        PremiumPaymentFrequency frequency = FREQUENCIES[in.get()];
+        LocalDateTime nextPaymentTime = readTime(in);
+        int outstandingBalance = in.getInt();
+
+        if ( company.getPaymentDataColumns() == null ) {
+            return new ContractPaymentData(premium, frequency, nextPaymentTime, outstandingBalance);
+        }
+        return new ColumnarPaymentData(company.getPaymentDataColumns(), premium, frequency, nextPaymentTime,
+                outstandingBalance);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(MappedInput in) {
+
+        long second = in.getLong();
+        return LocalDateTime.ofEpochSecond(second, in.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedInput in) {
+
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteQuietly(Path path) {
+
+        try {
+            Files.deleteIfExists(path);
+        } catch ( IOException ignored ) {
+        }
+    }
+
+    // a single mapping is limited to 2 GiB, so the file is read through a window that is remapped as it is consumed
+    private static final class MappedInput {
+
+        private static final long WINDOW = 1L << 28;
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+
+        private MappedInput(FileChannel channel) throws IOException {
+
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+
+            windowStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+        }
+
+        private void require(int bytes) {
+
+            if ( buffer.remaining() >= bytes ) {
+                return;
+            }
+            long position = windowStart + buffer.position();
+            if ( size - position < bytes ) {
+                throw new IllegalArgumentException("snapshot is truncated");
+            }
+            try {
+                map(position);
+            } catch ( IOException e ) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte get() {
+            require(Byte.BYTES);
+            return buffer.get();
+        }
+
+        int getInt() {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() {
+            require(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        void get(byte[] bytes) {
+            require(bytes.length);
+            buffer.get(bytes);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package persistence;
+
+import company.InsuranceCompany;
+import company.PersonRegistry;
+import company.PremiumRules;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.LegalForm;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+// one contract operation per line, fields separated by commas without quoting:
+//   V,contractNumber,policyHolderId,beneficiaryId,premium,frequency,licensePlate,originalValue
+//   T,contractNumber,policyHolderId,premium,frequency,insuredId;insuredId;...
+//   M,contractNumber,policyHolderId,beneficiaryId
+//   C,masterContractNumber,contractNumber
+// beneficiaryId may be empty; blank lines and lines starting with # are skipped;
+// rejected lines are written as lineNumber<TAB>reason<TAB>line
+public final class ContractImporter {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final InsuranceCompany company;
+    private final Executor validationExecutor;
+    private final int queueCapacity;
+
+    public ContractImporter(InsuranceCompany company) {
+        this(company, ForkJoinPool.commonPool(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public ContractImporter(InsuranceCompany company, Executor validationExecutor, int queueCapacity) {
+
+        if ( company == null || validationExecutor == null || queueCapacity <= 0 ) {
+            throw new IllegalArgumentException("invalid input");
+        }
+
+        this.company = company;
+        this.validationExecutor = validationExecutor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportSummary importFile(Path source, Path rejects) {
+
+        if ( source == null || rejects == null ) {
+            throw new IllegalArgumentException("source or rejects can't be null");
+        }
+
+        BlockingQueue<CompletableFuture<List<Row>>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Thread reader = Thread.ofPlatform().name("contract-import-reader").start(() -> read(source, queue));
+
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+
+        try ( BufferedWriter out = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8) ) {
+            while ( true ) {
+                List<Row> chunk = queue.take().join();
+                if ( chunk.isEmpty() ) {
+                    break;
+                }
+
+                for ( Row row : chunk ) {
+                    rowsRead++;
+                    String reason = row.error;
+                    if ( reason == null ) {
+                        try {
+                            row.command.apply(company);
+                            imported++;
+                            continue;
+                        } catch ( IllegalArgumentException | InvalidContractException e ) {
+                            reason = e.getMessage() == null ? "invalid input" : e.getMessage();
+                        }
+                    }
+                    rejected++;
+                    out.write(row.lineNumber + "\t" + reason + "\t" + row.line);
+                    out.newLine();
+                }
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        } catch ( CompletionException e ) {
+            if ( e.getCause() instanceof RuntimeException cause ) {
+                throw cause;
+            }
+            throw e;
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("import interrupted", e);
+        } finally {
+            reader.interrupt();
+        }
+
+        return new ImportSummary(rowsRead, imported, rejected);
+    }
+
+    private void read(Path source, BlockingQueue<CompletableFuture<List<Row>>> queue) {
+
+        try {
+            try ( BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8) ) {
+                long lineNumber = 0;
+                List<String> lines = new ArrayList<>(CHUNK_SIZE);
+                String line;
+
+                while ( (line = in.readLine()) != null ) {
+                    lines.add(line);
+                    if ( lines.size() == CHUNK_SIZE ) {
+                        queue.put(validate(lines, lineNumber + 1));
+                        lineNumber += lines.size();
+                        lines = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if ( !lines.isEmpty() ) {
+                    queue.put(validate(lines, lineNumber + 1));
+                }
+            } catch ( IOException e ) {
+                queue.put(CompletableFuture.failedFuture(new UncheckedIOException(e)));
+                return;
+            } catch ( RuntimeException e ) {
+                // the consumer blocks on the queue until this thread hands over the end or a failure
+                queue.put(CompletableFuture.failedFuture(e));
+                return;
+            }
+            queue.put(CompletableFuture.completedFuture(List.of()));
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<List<Row>> validate(List<String> lines, long firstLineNumber) {
+
+        try {
+            return CompletableFuture.supplyAsync(() -> validateChunk(lines, firstLineNumber), validationExecutor);
+        } catch ( RejectedExecutionException e ) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static List<Row> validateChunk(List<String> lines, long firstLineNumber) {
+
+        List<Row> rows = new ArrayList<>(lines.size());
+        for ( int i = 0; i < lines.size(); i++ ) {
+            String line = lines.get(i);
+            if ( line.isBlank() || line.startsWith("#") ) {
+                continue;
+            }
+            Row row = new Row(firstLineNumber + i, line);
+            try {
+                row.command = parse(line);
+            } catch ( IllegalArgumentException e ) {
+                row.error = e.getMessage() == null ? "invalid input" : e.getMessage();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Command parse(String line) {
+
+        String[] f = line.split(",", -1);
+
+        switch ( f[0] ) {
+            case "V" -> {
+                expectFields(f, 8);
+                Person beneficiary = f[3].isEmpty() ? null : new Person(f[3]);
+                int premium = parsePositiveInt(f[4], "premium");
+                PremiumPaymentFrequency frequency = parseFrequency(f[5]);
+                Vehicle vehicle = new Vehicle(f[6], parsePositiveInt(f[7], "originalValue"));
+                if ( PremiumRules.yearlyPremium(premium, frequency)
+                        < PremiumRules.minimumVehicleYearlyPremium(vehicle.getOriginalValue()) ) {
+                    throw new IllegalArgumentException("restrictions aren't met for yearPrem");
+                }
+                return new VehicleCommand(checkContractNumber(f[1]), new Person(f[2]), beneficiary,
+                        premium, frequency, vehicle);
+            }
+            case "T" -> {
+                expectFields(f, 6);
+                int premium = parsePositiveInt(f[3], "premium");
+                PremiumPaymentFrequency frequency = parseFrequency(f[4]);
+                List<Person> insured = new ArrayList<>();
+                for ( String id : f[5].split(";") ) {
+                    Person person = new Person(id);
+                    if ( person.getLegalForm() != LegalForm.NATURAL ) {
+                        throw new IllegalArgumentException("personToInsure can't be LEGAL");
+                    }
+                    insured.add(person);
+                }
+                if ( PremiumRules.yearlyPremium(premium, frequency) < PremiumRules.minimumTravelYearlyPremium(insured.size()) ) {
+                    throw new IllegalArgumentException("restrictions aren't met for yearPrem");
+                }
+                return new TravelCommand(checkContractNumber(f[1]), new Person(f[2]), premium, frequency, insured);
+            }
+            case "M" -> {
+                expectFields(f, 4);
+                if ( !Person.isValidRegistrationNumber(f[2]) ) {
+                    throw new IllegalArgumentException("policyHolder must be a legal person");
+                }
+                return new MasterCommand(checkContractNumber(f[1]), new Person(f[2]),
+                        f[3].isEmpty() ? null : new Person(f[3]));
+            }
+            case "C" -> {
+                expectFields(f, 3);
+                return new ChildCommand(checkContractNumber(f[1]), checkContractNumber(f[2]));
+            }
+            default -> throw new IllegalArgumentException("unknown row type " + f[0]);
+        }
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if ( fields.length != count ) {
+            throw new IllegalArgumentException("expected " + count + " fields but got " + fields.length);
+        }
+    }
+
+    private static String checkContractNumber(String contractNumber) {
+        if ( contractNumber.isEmpty() ) {
+            throw new IllegalArgumentException("contractNumber can't be empty");
+        }
+        return contractNumber;
+    }
+
+    private static int parsePositiveInt(String value, String name) {
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if ( parsed > 0 ) {
+                return parsed;
+            }
+        } catch ( NumberFormatException ignored ) {
+        }
+        throw new IllegalArgumentException(name + " is invalid");
+    }
+
+    private static PremiumPaymentFrequency parseFrequency(String value) {
+
+        try {
+            return PremiumPaymentFrequency.valueOf(value);
+        } catch ( IllegalArgumentException e ) {
+            throw new IllegalArgumentException("frequency is invalid");
+        }
+    }
+
+    private static final class Row {
+
+        private final long lineNumber;
+        private final String line;
+        private Command command;
+        private String error;
+
+        private Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    private interface Command {
+        void apply(InsuranceCompany company);
+    }
+
+    // persons are validated while parsing; the commit only swaps them for the registered instance
+    private static Person registered(PersonRegistry persons, Person person) {
+        return person == null ? null : persons.register(person);
+    }
+
+    private record VehicleCommand(String contractNumber, Person policyHolder, Person beneficiary, int premium,
+                                  PremiumPaymentFrequency frequency, Vehicle vehicle) implements Command {
+
+        @Override
+        public void apply(InsuranceCompany company) {
+            PersonRegistry persons = company.getPersonRegistry();
+            company.insureVehicle(contractNumber, registered(persons, beneficiary), registered(persons, policyHolder),
+                    premium, frequency, vehicle);
+        }
+    }
+
+    private record TravelCommand(String contractNumber, Person policyHolder, int premium,
+                                 PremiumPaymentFrequency frequency, List<Person> insuredPersons) implements Command {
+
+        @Override
+        public void apply(InsuranceCompany company) {
+            PersonRegistry persons = company.getPersonRegistry();
+            Set<Person> insured = new LinkedHashSet<>();
+            for ( Person person : insuredPersons ) {
+                insured.add(persons.register(person));
+            }
+            company.insurePersons(contractNumber, registered(persons, policyHolder), premium, frequency, insured);
+        }
+    }
+
+    private record MasterCommand(String contractNumber, Person policyHolder, Person beneficiary) implements Command {
+
+        @Override
+        public void apply(InsuranceCompany company) {
+            PersonRegistry persons = company.getPersonRegistry();
+            company.createMasterVehicleContract(contractNumber, registered(persons, beneficiary),
+                    registered(persons, policyHolder));
+        }
+    }
+
+    private record ChildCommand(String masterContractNumber, String contractNumber) implements Command {
+
+        @Override
+        public void apply(InsuranceCompany company) {
+            AbstractContract master = company.getContract(masterContractNumber);
+            AbstractContract child = company.getContract(contractNumber);
+            if ( !(master instanceof MasterVehicleContract masterContract) ) {
+                throw new InvalidContractException("master contract " + masterContractNumber + " not found");
+            }
+            if ( !(child instanceof SingleVehicleContract childContract) ) {
+                throw new InvalidContractException("single vehicle contract " + contractNumber + " not found");
+            }
+            company.moveSingleVehicleContractToMasterVehicleContract(masterContract, childContract);
+        }
+    }
+}
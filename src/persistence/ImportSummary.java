@@ -0,0 +1,27 @@
+package persistence;
+
+public class ImportSummary {
+
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+
+    public ImportSummary(long rowsRead, long imported, long rejected) {
+
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
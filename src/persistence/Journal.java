@@ -0,0 +1,595 @@
+package persistence;
+
+import company.InsuranceCompany;
+import company.PersonRegistry;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentRecord;
+import payment.PaymentResult;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+public class Journal implements AutoCloseable {
+
+    private static final byte SET_CURRENT_TIME = 1;
+    private static final byte INSURE_VEHICLE = 2;
+    private static final byte INSURE_PERSONS = 3;
+    private static final byte CREATE_MASTER = 4;
+    private static final byte MOVE_TO_MASTER = 5;
+    private static final byte PAY = 6;
+    private static final byte VEHICLE_CLAIM = 7;
+    private static final byte TRAVEL_CLAIM = 8;
+    private static final byte CHARGE_ALL = 9;
+    private static final byte CHARGE_CONTRACT = 10;
+    private static final byte REMOVE_CONTRACT = 11;
+    private static final byte SET_DUNNING_THRESHOLD = 12;
+    private static final byte SET_GRACE_PERIOD = 13;
+
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private final FileChannel channel;
+    private final boolean synchronousCommit;
+    private final ReentrantLock lock;
+    private final Condition pendingWritten;
+    private final Condition durable;
+    private final Thread flusher;
+
+    private ByteArrayOutputStream pending;
+    private long appendedSeq;
+    private long position;
+    private long durableSeq;
+    private IOException failure;
+    private boolean closed;
+
+    public Journal(Path path) {
+        this(path, true);
+    }
+
+    public Journal(Path path, boolean synchronousCommit) {
+
+        if ( path == null ) {
+            throw new IllegalArgumentException("path can't be null");
+        }
+
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // replay stops at the first torn frame, so records appended after one would be acknowledged but never
+            // replayed; a tail left by a crash mid-write is cut off before anything new is appended
+            this.position = validLength(channel);
+            if ( position < channel.size() ) {
+                channel.truncate(position);
+                channel.force(false);
+            }
+            channel.position(position);
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.synchronousCommit = synchronousCommit;
+        this.lock = new ReentrantLock();
+        this.pendingWritten = lock.newCondition();
+        this.durable = lock.newCondition();
+        this.pending = new ByteArrayOutputStream(1 << 16);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public long setCurrentTime(LocalDateTime currentTime) {
+        return append(out -> {
+            out.writeByte(SET_CURRENT_TIME);
+            writeTime(out, currentTime);
+        });
+    }
+
+    public long insureVehicle(String contractNumber, Person beneficiary, Person policyHolder, int premium,
+                              PremiumPaymentFrequency frequency, Vehicle vehicle) {
+        return append(out -> {
+            out.writeByte(INSURE_VEHICLE);
+            writeString(out, contractNumber);
+            writePerson(out, beneficiary);
+            writePerson(out, policyHolder);
+            out.writeInt(premium);
+            out.writeByte(frequency.ordinal());
+            writeString(out, vehicle.getLicensePlate());
+            out.writeInt(vehicle.getOriginalValue());
+        });
+    }
+
+    public long insurePersons(String contractNumber, Person policyHolder, int premium,
+                              PremiumPaymentFrequency frequency, Set<Person> personsToInsure) {
+        return append(out -> {
+            out.writeByte(INSURE_PERSONS);
+            writeString(out, contractNumber);
+            writePerson(out, policyHolder);
+            out.writeInt(premium);
+            out.writeByte(frequency.ordinal());
+            writePersons(out, personsToInsure);
+        });
+    }
+
+    public long createMasterVehicleContract(String contractNumber, Person beneficiary, Person policyHolder) {
+        return append(out -> {
+            out.writeByte(CREATE_MASTER);
+            writeString(out, contractNumber);
+            writePerson(out, beneficiary);
+            writePerson(out, policyHolder);
+        });
+    }
+
+    public long moveToMasterVehicleContract(String masterContractNumber, String singleContractNumber) {
+        return append(out -> {
+            out.writeByte(MOVE_TO_MASTER);
+            writeString(out, masterContractNumber);
+            writeString(out, singleContractNumber);
+        });
+    }
+
+    public long pay(String contractNumber, int amount, LocalDateTime paymentTime) {
+        return append(out -> {
+            out.writeByte(PAY);
+            writeString(out, contractNumber);
+            out.writeInt(amount);
+            writeTime(out, paymentTime);
+        });
+    }
+
+    public long processClaim(String contractNumber, int expectedDamages) {
+        return append(out -> {
+            out.writeByte(VEHICLE_CLAIM);
+            writeString(out, contractNumber);
+            out.writeInt(expectedDamages);
+        });
+    }
+
+    public long processClaim(String contractNumber, Set<Person> affectedPersons) {
+        return append(out -> {
+            out.writeByte(TRAVEL_CLAIM);
+            writeString(out, contractNumber);
+            writePersons(out, affectedPersons);
+        });
+    }
+
+    public long chargePremiumsOnContracts() {
+        return append(out -> out.writeByte(CHARGE_ALL));
+    }
+
+    public long chargePremiumOnContract(String contractNumber) {
+        return append(out -> {
+            out.writeByte(CHARGE_CONTRACT);
+            writeString(out, contractNumber);
+        });
+    }
+
+    public long removeContract(String contractNumber) {
+        return append(out -> {
+            out.writeByte(REMOVE_CONTRACT);
+            writeString(out, contractNumber);
+        });
+    }
+
+    public long setDunningThreshold(int dunningThreshold) {
+        return append(out -> {
+            out.writeByte(SET_DUNNING_THRESHOLD);
+            out.writeInt(dunningThreshold);
+        });
+    }
+
+    public long setGracePeriod(Duration gracePeriod) {
+        return append(out -> {
+            out.writeByte(SET_GRACE_PERIOD);
+            writeDuration(out, gracePeriod);
+        });
+    }
+
+    // byte offset just past the last appended record; a snapshot stores it so replay can skip what it already holds
+    public long position() {
+
+        lock.lock();
+        try {
+            return position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitCommit(long seq) {
+        if ( synchronousCommit ) {
+            awaitDurable(seq);
+        }
+    }
+
+    public void sync() {
+
+        lock.lock();
+        try {
+            awaitDurable(appendedSeq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        sync();
+
+        lock.lock();
+        try {
+            closed = true;
+            pendingWritten.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+            channel.close();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static int replay(Path path, InsuranceCompany company) {
+
+        if ( path == null || company == null ) {
+            throw new IllegalArgumentException("path or company can't be null");
+        }
+        if ( company.getJournal() != null ) {
+            throw new IllegalStateException("journal must be detached while replaying");
+        }
+
+        PersonRegistry persons = company.getPersonRegistry();
+        long position = company.getJournalPosition();
+        int applied = 0;
+
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+
+            long remaining = channel.size() - position;
+            if ( remaining < 0 ) {
+                throw new IllegalArgumentException("journal is shorter than the company's journal position");
+            }
+
+            // records are streamed from the position the company was restored at, so the journal isn't
+            // bounded by the size of a single mapping and records already in a snapshot are skipped
+            channel.position(position);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            CRC32 crc = new CRC32();
+
+            while ( remaining >= 8 ) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if ( length <= 0 || length > remaining - 8 ) {
+                    break;
+                }
+
+                byte[] record = new byte[length];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ( (int) crc.getValue() != checksum ) {
+                    break;
+                }
+
+                try {
+                    apply(new DataInputStream(new ByteArrayInputStream(record)), company, persons);
+                } catch ( RuntimeException e ) {
+                    throw new IllegalStateException("journal record at offset " + position + " can't be replayed", e);
+                }
+
+                position += 8 + length;
+                remaining -= 8 + length;
+                company.setJournalPosition(position);
+                applied++;
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+        return applied;
+    }
+
+    // offset just past the last frame whose length and checksum are intact
+    private static long validLength(FileChannel channel) throws IOException {
+
+        long remaining = channel.size();
+        long length = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        CRC32 crc = new CRC32();
+
+        while ( remaining >= 8 ) {
+            int recordLength = in.readInt();
+            int checksum = in.readInt();
+            if ( recordLength <= 0 || recordLength > remaining - 8 ) {
+                break;
+            }
+
+            byte[] record = new byte[recordLength];
+            in.readFully(record);
+            crc.reset();
+            crc.update(record);
+            if ( (int) crc.getValue() != checksum ) {
+                break;
+            }
+
+            length += 8 + recordLength;
+            remaining -= 8 + recordLength;
+        }
+        return length;
+    }
+
+    private long append(RecordWriter writer) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        lock.lock();
+        try {
+            if ( closed ) {
+                throw new IllegalStateException("journal is closed");
+            }
+            checkFailure();
+
+            writeInt(pending, record.length);
+            writeInt(pending, (int) crc.getValue());
+            pending.write(record, 0, record.length);
+            position += 8 + record.length;
+            appendedSeq++;
+            pendingWritten.signal();
+            return appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long seq) {
+
+        lock.lock();
+        try {
+            while ( durableSeq < seq ) {
+                checkFailure();
+                durable.awaitUninterruptibly();
+            }
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+
+        while ( true ) {
+            ByteArrayOutputStream batch;
+            long batchSeq;
+
+            lock.lock();
+            try {
+                while ( pending.size() == 0 && !closed ) {
+                    pendingWritten.awaitUninterruptibly();
+                }
+                if ( pending.size() == 0 ) {
+                    return;
+                }
+                batch = pending;
+                batchSeq = appendedSeq;
+                pending = new ByteArrayOutputStream(Math.max(1 << 16, batch.size()));
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while ( buffer.hasRemaining() ) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch ( IOException e ) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if ( error != null ) {
+                    failure = error;
+                } else {
+                    durableSeq = batchSeq;
+                }
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if ( error != null ) {
+                return;
+            }
+        }
+    }
+
+    private void checkFailure() {
+        if ( failure != null ) {
+            throw new UncheckedIOException("journal write failed", failure);
+        }
+    }
+
+    private static void apply(DataInputStream in, InsuranceCompany company, PersonRegistry persons) throws IOException {
+
+        byte op = in.readByte();
+
+        switch ( op ) {
+            case SET_CURRENT_TIME -> company.setCurrentTime(readTime(in));
+            case INSURE_VEHICLE -> {
+                String contractNumber = readString(in);
+                Person beneficiary = readPerson(in, persons);
+                Person policyHolder = readPerson(in, persons);
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = FREQUENCIES[in.readByte()];
+                Vehicle vehicle = new Vehicle(readString(in), in.readInt());
+                company.insureVehicle(contractNumber, beneficiary, policyHolder, premium, frequency, vehicle);
+            }
+            case INSURE_PERSONS -> {
+                String contractNumber = readString(in);
+                Person policyHolder = readPerson(in, persons);
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = FREQUENCIES[in.readByte()];
+                company.insurePersons(contractNumber, policyHolder, premium, frequency, readPersons(in, persons));
+            }
+            case CREATE_MASTER -> {
+                String contractNumber = readString(in);
+                Person beneficiary = readPerson(in, persons);
+                company.createMasterVehicleContract(contractNumber, beneficiary, readPerson(in, persons));
+            }
+            case MOVE_TO_MASTER -> company.moveSingleVehicleContractToMasterVehicleContract(
+                    (MasterVehicleContract) company.getContract(readString(in)),
+                    (SingleVehicleContract) company.getContract(readString(in)));
+            case PAY -> {
+                String contractNumber = readString(in);
+                int amount = in.readInt();
+                PaymentResult result = company.getHandler().payAll(
+                        List.of(new PaymentRecord(contractNumber, amount, readTime(in)))).get(0);
+                if ( !result.isApplied() ) {
+                    throw new IllegalStateException("payment on " + contractNumber + " was rejected: "
+                            + result.getRejectionReason());
+                }
+            }
+            case VEHICLE_CLAIM -> company.processClaim(
+                    (SingleVehicleContract) company.getContract(readString(in)), in.readInt());
+            case TRAVEL_CLAIM -> {
+                TravelContract contract = (TravelContract) company.getContract(readString(in));
+                Set<Person> affected = new LinkedHashSet<>();
+                int count = in.readInt();
+                for ( int i = 0; i < count; i++ ) {
+                    String id = readString(in);
+                    for ( Person insured : contract.getInsuredPersons() ) {
+                        if ( insured.getId().equals(id) ) {
+                            affected.add(insured);
+                            break;
+                        }
+                    }
+                }
+                company.processClaim(contract, affected);
+            }
+            case CHARGE_ALL -> company.chargePremiumsOnContracts();
+            case CHARGE_CONTRACT -> company.getContract(readString(in)).updateBalance();
+            case REMOVE_CONTRACT -> company.removeContract(readString(in));
+            case SET_DUNNING_THRESHOLD -> company.getDelinquencyIndex().setDunningThreshold(in.readInt());
+            case SET_GRACE_PERIOD -> company.getDelinquencyIndex().setGracePeriod(readDuration(in));
+            default -> throw new IllegalArgumentException("unknown journal operation " + op);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+
+        long second = in.readLong();
+        return LocalDateTime.ofEpochSecond(second, in.readInt(), ZoneOffset.UTC);
+    }
+
+    // a negative second count stands for no grace period, as durations set on the index are never negative
+    private static void writeDuration(DataOutputStream out, Duration duration) throws IOException {
+
+        out.writeLong(duration == null ? -1 : duration.getSeconds());
+        out.writeInt(duration == null ? 0 : duration.getNano());
+    }
+
+    private static Duration readDuration(DataInputStream in) throws IOException {
+
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds < 0 ? null : Duration.ofSeconds(seconds, nanos);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writePerson(DataOutputStream out, Person person) throws IOException {
+        writeString(out, person == null ? "" : person.getId());
+    }
+
+    private static Person readPerson(DataInputStream in, PersonRegistry persons) throws IOException {
+
+        String id = readString(in);
+        return id.isEmpty() ? null : persons.getOrCreate(id);
+    }
+
+    private static void writePersons(DataOutputStream out, Set<Person> values) throws IOException {
+
+        out.writeInt(values.size());
+        for ( Person person : values ) {
+            writePerson(out, person);
+        }
+    }
+
+    private static Set<Person> readPersons(DataInputStream in, PersonRegistry persons) throws IOException {
+
+        Set<Person> values = new LinkedHashSet<>();
+        int count = in.readInt();
+        for ( int i = 0; i < count; i++ ) {
+            values.add(readPerson(in, persons));
+        }
+        return values;
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,9 @@
+package service;
+
+public class ContractNotFoundException extends RuntimeException
+{
+    public ContractNotFoundException(String contractNumber)
+    {
+        super("contract " + contractNumber + " not found");
+    }
+}
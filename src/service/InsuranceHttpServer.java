@@ -0,0 +1,150 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import company.PremiumRules;
+import contracts.InvalidContractException;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+public class InsuranceHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    public InsuranceHttpServer(InsuranceService service, int port) throws IOException {
+
+        if(service == null || port < 0) {
+            throw new IllegalArgumentException("invalid input");
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(service.getExecutor());
+
+        route("/quote/vehicle", p -> String.valueOf(PremiumRules.minimumVehiclePremium(
+                intParam(p, "value"), frequencyParam(p))));
+        route("/quote/travel", p -> String.valueOf(PremiumRules.minimumTravelPremium(
+                intParam(p, "persons"), frequencyParam(p))));
+        route("/insure/vehicle", p -> service.doInsureVehicle(param(p, "contract"), p.get("beneficiary"),
+                param(p, "holder"), intParam(p, "premium"), frequencyParam(p), param(p, "plate"),
+                intParam(p, "value")).getContractNumber());
+        route("/insure/travel", p -> service.doInsurePersons(param(p, "contract"), param(p, "holder"),
+                intParam(p, "premium"), frequencyParam(p), idsParam(p, "persons")).getContractNumber());
+        route("/pay", p -> {
+            service.doPay(param(p, "contract"), intParam(p, "amount"));
+            return "ok";
+        });
+        route("/claim/vehicle", p -> {
+            service.doClaimVehicle(param(p, "contract"), intParam(p, "damages"));
+            return "ok";
+        });
+        route("/claim/travel", p -> {
+            service.doClaimTravel(param(p, "contract"), idsParam(p, "persons"));
+            return "ok";
+        });
+        route("/charge", p -> {
+            service.doChargePremiums(p.containsKey("time") ? LocalDateTime.parse(p.get("time")) : null);
+            return "ok";
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void route(String path, Function<Map<String, String>, String> handler) {
+        server.createContext(path, exchange -> handle(exchange, handler));
+    }
+
+    private void handle(HttpExchange exchange, Function<Map<String, String>, String> handler) throws IOException {
+
+        int status;
+        String body;
+        try {
+            body = handler.apply(parseQuery(exchange.getRequestURI().getRawQuery()));
+            status = 200;
+        } catch (ContractNotFoundException e) {
+            status = 404;
+            body = e.getMessage();
+        } catch (InvalidContractException e) {
+            status = 409;
+            body = e.getMessage();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = e.getMessage() == null ? "invalid input" : e.getMessage();
+        } catch (RuntimeException e) {
+            status = 500;
+            body = String.valueOf(e.getMessage());
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+
+        Map<String, String> params = new HashMap<>();
+        if(query == null || query.isEmpty()) {
+            return params;
+        }
+        for(String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if(eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String param(Map<String, String> params, String name) {
+
+        String value = params.get(name);
+        if(value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is missing");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(param(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is invalid");
+        }
+    }
+
+    private static PremiumPaymentFrequency frequencyParam(Map<String, String> params) {
+        return PremiumPaymentFrequency.valueOf(param(params, "frequency"));
+    }
+
+    private static Set<String> idsParam(Map<String, String> params, String name) {
+        return new LinkedHashSet<>(Arrays.asList(param(params, name).split(",")));
+    }
+}
@@ -0,0 +1,194 @@
+package service;
+
+import company.InsuranceCompany;
+import company.PremiumRules;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// the company orders requests itself: payments and claims per contract (or master contract) on the payment
+// handler's stripes, issuance only against other issuance, billing runs exclusively; the service only keeps a
+// time change and the billing run it's made for together
+public class InsuranceService implements AutoCloseable {
+
+    private final InsuranceCompany company;
+    private final ExecutorService executor;
+    private final ReentrantLock billingLock;
+
+    public InsuranceService(InsuranceCompany company) {
+
+        if(company == null) {
+            throw new IllegalArgumentException("company can't be null");
+        }
+
+        this.company = company;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.billingLock = new ReentrantLock();
+    }
+
+    public InsuranceCompany getCompany() {
+        return company;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public CompletableFuture<Integer> quoteVehicle(int originalValue, PremiumPaymentFrequency frequency) {
+        return submit(() -> PremiumRules.minimumVehiclePremium(originalValue, frequency));
+    }
+
+    public CompletableFuture<Integer> quoteTravel(int insuredPersons, PremiumPaymentFrequency frequency) {
+        return submit(() -> PremiumRules.minimumTravelPremium(insuredPersons, frequency));
+    }
+
+    public CompletableFuture<SingleVehicleContract> insureVehicle(String contractNumber, String beneficiaryId,
+                                                                  String policyHolderId, int proposedPremium,
+                                                                  PremiumPaymentFrequency frequency,
+                                                                  String licensePlate, int originalValue) {
+        return submit(() -> doInsureVehicle(contractNumber, beneficiaryId, policyHolderId, proposedPremium,
+                frequency, licensePlate, originalValue));
+    }
+
+    public CompletableFuture<TravelContract> insurePersons(String contractNumber, String policyHolderId,
+                                                           int proposedPremium, PremiumPaymentFrequency frequency,
+                                                           Set<String> insuredPersonIds) {
+        return submit(() -> doInsurePersons(contractNumber, policyHolderId, proposedPremium, frequency, insuredPersonIds));
+    }
+
+    public CompletableFuture<Void> pay(String contractNumber, int amount) {
+        return submit(() -> {
+            doPay(contractNumber, amount);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> claimVehicle(String contractNumber, int expectedDamages) {
+        return submit(() -> {
+            doClaimVehicle(contractNumber, expectedDamages);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> claimTravel(String contractNumber, Set<String> affectedPersonIds) {
+        return submit(() -> {
+            doClaimTravel(contractNumber, affectedPersonIds);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> chargePremiums(LocalDateTime currentTime) {
+        return submit(() -> {
+            doChargePremiums(currentTime);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    SingleVehicleContract doInsureVehicle(String contractNumber, String beneficiaryId, String policyHolderId,
+                                          int proposedPremium, PremiumPaymentFrequency frequency,
+                                          String licensePlate, int originalValue) {
+
+        Person beneficiary = beneficiaryId == null ? null : company.getPersonRegistry().getOrCreate(beneficiaryId);
+        Person policyHolder = company.getPersonRegistry().getOrCreate(policyHolderId);
+        Vehicle vehicle = new Vehicle(licensePlate, originalValue);
+
+        return company.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, frequency, vehicle);
+    }
+
+    TravelContract doInsurePersons(String contractNumber, String policyHolderId, int proposedPremium,
+                                   PremiumPaymentFrequency frequency, Set<String> insuredPersonIds) {
+
+        Person policyHolder = company.getPersonRegistry().getOrCreate(policyHolderId);
+        Set<Person> insuredPersons = resolvePersons(insuredPersonIds);
+
+        return company.insurePersons(contractNumber, policyHolder, proposedPremium, frequency, insuredPersons);
+    }
+
+    void doPay(String contractNumber, int amount) {
+
+        AbstractContract contract = findContract(contractNumber);
+        if(contract instanceof MasterVehicleContract master) {
+            company.getHandler().pay(master, amount);
+        } else {
+            company.getHandler().pay(contract, amount);
+        }
+    }
+
+    void doClaimVehicle(String contractNumber, int expectedDamages) {
+
+        if(!(findContract(contractNumber) instanceof SingleVehicleContract contract)) {
+            throw new InvalidContractException("contract is not a single vehicle contract");
+        }
+        company.processClaim(contract, expectedDamages);
+    }
+
+    void doClaimTravel(String contractNumber, Set<String> affectedPersonIds) {
+
+        Set<Person> affectedPersons = resolvePersons(affectedPersonIds);
+
+        if(!(findContract(contractNumber) instanceof TravelContract contract)) {
+            throw new InvalidContractException("contract is not a travel contract");
+        }
+        company.processClaim(contract, affectedPersons);
+    }
+
+    void doChargePremiums(LocalDateTime currentTime) {
+
+        billingLock.lock();
+        try {
+            if(currentTime != null && !currentTime.equals(company.getCurrentTime())) {
+                company.setCurrentTime(currentTime);
+            }
+            company.chargePremiumsOnContracts();
+        } finally {
+            billingLock.unlock();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, executor);
+    }
+
+    private AbstractContract findContract(String contractNumber) {
+
+        if(contractNumber == null || contractNumber.isEmpty()) {
+            throw new IllegalArgumentException("contractNumber is invalid");
+        }
+        AbstractContract contract = company.getContract(contractNumber);
+        if(contract == null) {
+            throw new ContractNotFoundException(contractNumber);
+        }
+        return contract;
+    }
+
+    private Set<Person> resolvePersons(Set<String> personIds) {
+
+        if(personIds == null) {
+            return null;
+        }
+        Set<Person> persons = new LinkedHashSet<>();
+        for(String id : personIds) {
+            persons.add(company.getPersonRegistry().getOrCreate(id));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,179 @@
+package service;
+
+import company.PremiumRules;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadGenerator {
+
+    private static final AtomicLong RUNS = new AtomicLong();
+    private static final long PLATES_PER_RUN = 10_000_000L;
+    private static final int VEHICLE_VALUE = 10_000;
+
+    private final InsuranceService service;
+    private final URI endpoint;
+    private final HttpClient client;
+
+    public LoadGenerator(InsuranceService service) {
+
+        if(service == null) {
+            throw new IllegalArgumentException("service can't be null");
+        }
+        this.service = service;
+        this.endpoint = null;
+        this.client = null;
+    }
+
+    public LoadGenerator(URI endpoint) {
+
+        if(endpoint == null) {
+            throw new IllegalArgumentException("endpoint can't be null");
+        }
+        this.service = null;
+        this.endpoint = endpoint;
+        this.client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    public LoadReport run(int contracts, int requests, int concurrency) throws InterruptedException {
+
+        if(contracts <= 0 || requests <= 0 || concurrency <= 0 || (long) contracts + requests > PLATES_PER_RUN) {
+            throw new IllegalArgumentException("invalid input");
+        }
+
+        long run = RUNS.incrementAndGet();
+        String prefix = "load-" + run + "-";
+        long plateBase = run * PLATES_PER_RUN;
+
+        for(int i = 0; i < contracts; i++) {
+            if(!insure(prefix + i, holderId(i), Vehicle.decodeLicensePlate(plateBase + i))) {
+                throw new IllegalStateException("setup failed for contract " + prefix + i);
+            }
+        }
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger issued = new AtomicInteger(contracts);
+        Semaphore permits = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int i = 0; i < requests; i++) {
+                permits.acquire();
+                int request = i;
+                executor.execute(() -> {
+                    try {
+                        long begin = System.nanoTime();
+                        if(!execute(prefix, plateBase, contracts, issued)) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[request] = System.nanoTime() - begin;
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new LoadReport(requests, errors.get(), elapsed, percentile(latencies, 0.50),
+                percentile(latencies, 0.99), latencies[latencies.length - 1]);
+    }
+
+    private boolean execute(String prefix, long plateBase, int contracts, AtomicInteger issued) {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(100);
+        String contractNumber = prefix + random.nextInt(contracts);
+
+        if(operation < 50) {
+            return pay(contractNumber, 1 + random.nextInt(100));
+        } else if(operation < 75) {
+            return quote(PremiumPaymentFrequency.values()[random.nextInt(4)]);
+        } else if(operation < 95) {
+            return claim(contractNumber, 1 + random.nextInt(100));
+        }
+
+        int i = issued.getAndIncrement();
+        return insure(prefix + i, holderId(i), Vehicle.decodeLicensePlate(plateBase + i));
+    }
+
+    private boolean insure(String contractNumber, String holderId, String licensePlate) {
+
+        int premium = PremiumRules.minimumVehiclePremium(VEHICLE_VALUE, PremiumPaymentFrequency.MONTHLY);
+        if(service != null) {
+            return succeeded(() -> service.insureVehicle(contractNumber, null, holderId, premium,
+                    PremiumPaymentFrequency.MONTHLY, licensePlate, VEHICLE_VALUE).join());
+        }
+        return get("/insure/vehicle?contract=" + contractNumber + "&holder=" + holderId + "&premium=" + premium
+                + "&frequency=MONTHLY&plate=" + licensePlate + "&value=" + VEHICLE_VALUE);
+    }
+
+    private boolean pay(String contractNumber, int amount) {
+
+        if(service != null) {
+            return succeeded(() -> service.pay(contractNumber, amount).join());
+        }
+        return get("/pay?contract=" + contractNumber + "&amount=" + amount);
+    }
+
+    private boolean claim(String contractNumber, int expectedDamages) {
+
+        if(service != null) {
+            return succeeded(() -> service.claimVehicle(contractNumber, expectedDamages).join());
+        }
+        return get("/claim/vehicle?contract=" + contractNumber + "&damages=" + expectedDamages);
+    }
+
+    private boolean quote(PremiumPaymentFrequency frequency) {
+
+        if(service != null) {
+            return succeeded(() -> service.quoteVehicle(VEHICLE_VALUE, frequency).join());
+        }
+        return get("/quote/vehicle?value=" + VEHICLE_VALUE + "&frequency=" + frequency);
+    }
+
+    private boolean get(String pathAndQuery) {
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(endpoint.resolve(pathAndQuery)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean succeeded(Runnable request) {
+
+        try {
+            request.run();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String holderId(int i) {
+        return String.format("%08d", i % 100_000_000);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
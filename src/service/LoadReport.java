@@ -0,0 +1,55 @@
+package service;
+
+public class LoadReport {
+
+    private final int requests;
+    private final int errors;
+    private final long elapsedNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    public LoadReport(int requests, int errors, long elapsedNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+
+        this.requests = requests;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests, %d errors, %.0f req/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                requests, errors, getThroughput(), p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,114 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BillingCohortsTest {
+
+    private static final LocalDateTime[] CHARGE_TIMES = {
+            GeneratedBook.START.plusDays(40),
+            GeneratedBook.START.plusMonths(2).plusDays(27),
+            GeneratedBook.START.plusMonths(2).plusDays(29),
+            GeneratedBook.START.plusMonths(7),
+            GeneratedBook.START.plusYears(2).plusMonths(1).plusDays(30)
+    };
+
+    @Test
+    void cohortsMatchPerContractChargingAndPerPeriodLoop() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for(long seed = 0; seed < 4; seed++) {
+                InsuranceCompany cohorts = book(seed);
+                InsuranceCompany parallelCohorts = book(seed);
+                InsuranceCompany perContract = book(seed);
+                InsuranceCompany loop = book(seed);
+
+                for(int step = 0; step < CHARGE_TIMES.length; step++) {
+                    LocalDateTime time = CHARGE_TIMES[step];
+
+                    IntSummaryStatistics accrued = BillingCohorts.charge(units(cohorts), time, cohorts.getHandler(), null);
+                    IntSummaryStatistics parallelAccrued = BillingCohorts.charge(units(parallelCohorts), time,
+                            parallelCohorts.getHandler(), pool);
+                    IntSummaryStatistics expectedAccrued = new IntSummaryStatistics();
+                    for(AbstractContract contract : units(perContract)) {
+                        int periods = perContract.getHandler().chargeDuePremiums(contract, time);
+                        if(periods > 0) {
+                            expectedAccrued.accept(periods);
+                        }
+                    }
+                    for(AbstractContract contract : units(loop)) {
+                        chargeLikeBefore(contract, time);
+                    }
+
+                    assertEquals(expectedAccrued.toString(), accrued.toString(), "seed " + seed + " step " + step);
+                    assertEquals(expectedAccrued.toString(), parallelAccrued.toString(), "seed " + seed + " step " + step);
+                    GeneratedBook.assertSameBook(perContract, cohorts);
+                    GeneratedBook.assertSameBook(perContract, parallelCohorts);
+                    GeneratedBook.assertSameBook(loop, cohorts);
+
+                    for(InsuranceCompany company : List.of(cohorts, parallelCohorts, perContract, loop)) {
+                        company.setCurrentTime(time);
+                        GeneratedBook.operate(company, new Random(seed * 31 + step), 1_000);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // a generated book plus a batch issued at one instant, so some cohorts have hundreds of members
+    private static InsuranceCompany book(long seed) {
+
+        InsuranceCompany company = GeneratedBook.build(seed, 500);
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        company.setCurrentTime(GeneratedBook.START.plusDays(30).withHour(12));
+        for(int i = 0; i < 400; i++) {
+            PremiumPaymentFrequency frequency = frequencies[i % frequencies.length];
+            company.insureVehicle("B" + i, null, company.getPersonRegistry().getOrCreate("87654321"),
+                    PremiumRules.minimumVehiclePremium(5_000, frequency) + i % 3, frequency,
+                    new Vehicle(Vehicle.decodeLicensePlate(1_000_000 + i), 5_000));
+        }
+        return company;
+    }
+
+    // what a billing run charges: active top-level contracts, and every child of an active master
+    private static List<AbstractContract> units(InsuranceCompany company) {
+
+        List<AbstractContract> units = new ArrayList<>();
+        for(AbstractContract contract : company.getContracts()) {
+            if(!contract.isActive()) {
+                continue;
+            }
+            if(contract instanceof MasterVehicleContract master) {
+                units.addAll(master.getChildContracts());
+            } else {
+                units.add(contract);
+            }
+        }
+        return units;
+    }
+
+    private static void chargeLikeBefore(AbstractContract contract, LocalDateTime time) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        while(!paymentData.getNextPaymentTime().isAfter(time)) {
+            paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() + paymentData.getPremium());
+            paymentData.updateNextPaymentTime();
+        }
+    }
+}
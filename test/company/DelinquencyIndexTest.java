@@ -0,0 +1,53 @@
+package company;
+
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelinquencyIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+    private static final int PREMIUM = 100;
+
+    @Test
+    void graceRunsFromTheLatestCrossing() {
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        DelinquencyIndex index = company.getDelinquencyIndex();
+        index.setGracePeriod(Duration.ofDays(45));
+        SingleVehicleContract contract = company.insureVehicle("V1", null, new Person("12345678"), PREMIUM,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA123BB", 1000));
+
+        int month = 0;
+        while(index.getArrears(contract) < index.getDunningThreshold()) {
+            company.setCurrentTime(START.plusMonths(++month));
+            company.chargePremiumsOnContracts();
+        }
+        LocalDateTime firstCrossing = company.getCurrentTime();
+
+        // back under the threshold, then over it again by the next charge, inside the first crossing's grace
+        company.getHandler().pay(contract, PREMIUM);
+        assertEquals(index.getDunningThreshold() - 1, index.getArrears(contract));
+        company.setCurrentTime(START.plusMonths(++month));
+        company.chargePremiumsOnContracts();
+        LocalDateTime secondCrossing = company.getCurrentTime();
+        assertEquals(index.getDunningThreshold(), index.getArrears(contract));
+
+        company.setCurrentTime(firstCrossing.plusDays(45));
+        company.chargePremiumsOnContracts();
+        assertTrue(contract.isActive());
+
+        company.setCurrentTime(secondCrossing.plusDays(45));
+        company.chargePremiumsOnContracts();
+        assertFalse(contract.isActive());
+    }
+}
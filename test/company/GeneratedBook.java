@@ -0,0 +1,149 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PaymentInstance;
+import payment.PaymentLog;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// a deterministic book for comparing two ways of running the same operations: the same seed gives the same
+// contracts, issued over a month that ends on the 31st, and the same payments and claims afterwards
+final class GeneratedBook {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private GeneratedBook() {
+    }
+
+    // 9-digit birth numbers of persons born before 1954, which carry no check digit
+    static String birthNumber(int index) {
+        return String.format("%02d%02d%02d%03d", index % 50, 1 + index / 50 % 12, 1 + index / 600 % 28, index / 16_800);
+    }
+
+    static InsuranceCompany build(long seed, int contracts) {
+
+        Random random = new Random(seed);
+        InsuranceCompany company = new InsuranceCompany(START);
+        PersonRegistry persons = company.getPersonRegistry();
+        List<MasterVehicleContract> masters = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            masters.add(company.createMasterVehicleContract("M" + i, null, persons.getOrCreate(String.format("%08d", i))));
+        }
+
+        // issued over January, so the 29th to the 31st start schedules that clamp to the end of February
+        for(int i = 0; i < contracts; i++) {
+            company.setCurrentTime(START.plusDays(i * 31L / contracts).plusMinutes(random.nextInt(600)));
+            PremiumPaymentFrequency frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+
+            if(i % 7 == 3) {
+                Set<Person> insured = new LinkedHashSet<>();
+                for(int k = 0; k <= random.nextInt(3); k++) {
+                    insured.add(persons.getOrCreate(birthNumber(100_000 + i * 3 + k)));
+                }
+                company.insurePersons("T" + i, insured.iterator().next(),
+                        PremiumRules.minimumTravelPremium(insured.size(), frequency) + random.nextInt(20), frequency, insured);
+                continue;
+            }
+
+            Vehicle vehicle = new Vehicle(Vehicle.decodeLicensePlate(i), 2_000 + random.nextInt(40_000));
+            int premium = PremiumRules.minimumVehiclePremium(vehicle.getOriginalValue(), frequency) + random.nextInt(50);
+            if(i % 5 == 1) {
+                MasterVehicleContract master = masters.get(random.nextInt(masters.size()));
+                SingleVehicleContract child = company.insureVehicle("V" + i, null, master.getPolicyHolder(), premium,
+                        frequency, vehicle);
+                company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            } else {
+                Person beneficiary = random.nextInt(4) == 0 ? persons.getOrCreate(birthNumber(i)) : null;
+                company.insureVehicle("V" + i, beneficiary, persons.getOrCreate(birthNumber(200_000 + i % 500)),
+                        premium, frequency, vehicle);
+            }
+        }
+        return company;
+    }
+
+    // contracts in a fixed order, children right after their master
+    static List<AbstractContract> contracts(InsuranceCompany company) {
+
+        List<AbstractContract> all = new ArrayList<>();
+        for(AbstractContract contract : company.getContracts()) {
+            all.add(contract);
+            if(contract instanceof MasterVehicleContract master) {
+                all.addAll(master.getChildContracts());
+            }
+        }
+        return all;
+    }
+
+    // payments on random contracts and masters, and claims that deactivate some of them
+    static void operate(InsuranceCompany company, Random random, int operations) {
+
+        List<AbstractContract> all = contracts(company);
+        for(int i = 0; i < operations; i++) {
+            AbstractContract contract = all.get(random.nextInt(all.size()));
+            int amount = 1 + random.nextInt(400);
+            if(!contract.isActive()) {
+                continue;
+            }
+
+            if(contract instanceof MasterVehicleContract master) {
+                company.getHandler().pay(master, amount * 20);
+            } else if(random.nextInt(40) == 0) {
+                if(contract instanceof SingleVehicleContract single) {
+                    company.processClaim(single, single.getInsuredVehicle().getOriginalValue());
+                } else {
+                    TravelContract travel = (TravelContract) contract;
+                    company.processClaim(travel, Set.of(travel.getInsuredPersons().iterator().next()));
+                }
+            } else {
+                company.getHandler().pay(contract, amount);
+            }
+        }
+    }
+
+    static void assertSameBook(InsuranceCompany expected, InsuranceCompany actual) {
+
+        List<AbstractContract> contracts = contracts(expected);
+        assertEquals(contracts.size(), contracts(actual).size());
+
+        for(AbstractContract contract : contracts) {
+            AbstractContract copy = actual.getContract(contract.getContractNumber());
+            String number = contract.getContractNumber();
+            assertNotNull(copy, number);
+            assertEquals(contract.isActive(), copy.isActive(), number);
+
+            ContractPaymentData data = contract.getContractPaymentData();
+            if(data != null) {
+                ContractPaymentData copyData = copy.getContractPaymentData();
+                assertEquals(data.getOutstandingBalance(), copyData.getOutstandingBalance(), number);
+                assertEquals(data.getNextPaymentTime(), copyData.getNextPaymentTime(), number);
+            }
+
+            PaymentLog log = expected.getHandler().getPaymentHistory().get(contract);
+            PaymentLog copyLog = actual.getHandler().getPaymentHistory().get(copy);
+            assertEquals(log == null ? List.of() : log.getPayments().stream().map(GeneratedBook::payment).toList(),
+                    copyLog == null ? List.of() : copyLog.getPayments().stream().map(GeneratedBook::payment).toList(),
+                    number);
+        }
+    }
+
+    private static String payment(PaymentInstance payment) {
+        return payment.getPaymentTime() + "=" + payment.getPaymentAmount();
+    }
+}
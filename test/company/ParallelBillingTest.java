@@ -0,0 +1,120 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelBillingTest {
+
+    private static final int CONTRACTS = 3_000;
+
+    // month ends, a clamped February, a catch-up over more than a year and runs with nothing due
+    private static final List<LocalDateTime> BILLING_TIMES = List.of(
+            LocalDateTime.of(2024, 2, 1, 0, 0),
+            LocalDateTime.of(2024, 2, 29, 12, 0),
+            LocalDateTime.of(2024, 2, 29, 12, 0),
+            LocalDateTime.of(2024, 3, 31, 8, 0),
+            LocalDateTime.of(2024, 4, 30, 23, 0),
+            LocalDateTime.of(2025, 6, 30, 9, 0),
+            LocalDateTime.of(2025, 7, 1, 0, 0),
+            LocalDateTime.of(2028, 2, 29, 18, 0));
+
+    @Test
+    void parallelBillingMatchesSequentialAndPerPeriodLoop() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            InsuranceCompany sequential = GeneratedBook.build(7, CONTRACTS);
+            InsuranceCompany parallel = GeneratedBook.build(7, CONTRACTS);
+            InsuranceCompany loop = GeneratedBook.build(7, CONTRACTS);
+            parallel.setBillingMode(BillingMode.PARALLEL);
+            parallel.setBillingPool(pool);
+
+            for(int step = 0; step < BILLING_TIMES.size(); step++) {
+                LocalDateTime time = BILLING_TIMES.get(step);
+                sequential.setCurrentTime(time);
+                parallel.setCurrentTime(time);
+                loop.setCurrentTime(time);
+
+                sequential.chargePremiumsOnContracts();
+                parallel.chargePremiumsOnContracts();
+                chargeLikeBefore(loop);
+
+                GeneratedBook.assertSameBook(loop, sequential);
+                GeneratedBook.assertSameBook(sequential, parallel);
+
+                GeneratedBook.operate(sequential, new Random(step), 2_000);
+                GeneratedBook.operate(parallel, new Random(step), 2_000);
+                GeneratedBook.operate(loop, new Random(step), 2_000);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void monthEndScheduleCatchesUpLikePlusMonths() {
+
+        for(BillingMode mode : BillingMode.values()) {
+            InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2024, 1, 31, 10, 0));
+            company.setBillingMode(mode);
+            Person holder = new Person("12345678");
+            SingleVehicleContract single = company.insureVehicle("V1", null, holder, 50,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA123BB", 10_000));
+            MasterVehicleContract master = company.createMasterVehicleContract("M1", null, holder);
+            SingleVehicleContract child = company.insureVehicle("V2", null, holder, 60,
+                    PremiumPaymentFrequency.QUARTERLY, new Vehicle("AA124BB", 10_000));
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+
+            // the first period is charged at issuance; February clamps the day to the 29th for good
+            company.setCurrentTime(LocalDateTime.of(2024, 2, 29, 10, 0));
+            company.chargePremiumsOnContracts();
+            assertEquals(LocalDateTime.of(2024, 3, 29, 10, 0), single.getContractPaymentData().getNextPaymentTime());
+            assertEquals(100, single.getContractPaymentData().getOutstandingBalance());
+
+            // fourteen monthly periods and four quarterly ones at once; February 2025 clamps to the 28th
+            company.setCurrentTime(LocalDateTime.of(2025, 4, 29, 10, 0));
+            company.chargePremiumsOnContracts();
+            assertEquals(LocalDateTime.of(2025, 5, 28, 10, 0), single.getContractPaymentData().getNextPaymentTime());
+            assertEquals(16 * 50, single.getContractPaymentData().getOutstandingBalance());
+            assertEquals(LocalDateTime.of(2025, 4, 30, 10, 0), child.getContractPaymentData().getNextPaymentTime());
+            assertEquals(5 * 60, child.getContractPaymentData().getOutstandingBalance());
+        }
+    }
+
+    // the billing run before the due-date heap, cohorts and the parallel mode
+    private static void chargeLikeBefore(InsuranceCompany company) {
+
+        for(AbstractContract contract : company.getContracts()) {
+            if(!contract.isActive()) {
+                continue;
+            }
+            if(contract instanceof MasterVehicleContract master) {
+                master.getChildContracts().forEach(child -> chargeLikeBefore(company, child));
+            } else {
+                chargeLikeBefore(company, contract);
+            }
+        }
+    }
+
+    private static void chargeLikeBefore(InsuranceCompany company, AbstractContract contract) {
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        while(!paymentData.getNextPaymentTime().isAfter(company.getCurrentTime())) {
+            paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() + paymentData.getPremium());
+            paymentData.updateNextPaymentTime();
+        }
+    }
+}
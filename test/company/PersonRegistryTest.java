@@ -0,0 +1,37 @@
+package company;
+
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PersonRegistryTest {
+
+    @Test
+    void issuanceSwapsInTheRegisteredInstance() {
+
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2024, 1, 1, 0, 0));
+        Person holder = company.getPersonRegistry().getOrCreate("12345678");
+        Person traveller = company.getPersonRegistry().getOrCreate("010101000");
+
+        SingleVehicleContract vehicle = company.insureVehicle("V0", new Person("010101000"), new Person("12345678"),
+                100, PremiumPaymentFrequency.MONTHLY, new Vehicle(Vehicle.decodeLicensePlate(0), 1000));
+        TravelContract travel = company.insurePersons("T0", new Person("010101000"), 10,
+                PremiumPaymentFrequency.MONTHLY, Set.of(new Person("010101000")));
+
+        assertSame(holder, vehicle.getPolicyHolder());
+        assertSame(traveller, vehicle.getBeneficiary());
+        assertSame(traveller, travel.getPolicyHolder());
+        assertSame(traveller, travel.getInsuredPersons().iterator().next());
+        assertEquals(Set.of(vehicle), holder.getContracts());
+        assertEquals(2, company.getPersonRegistry().size());
+    }
+}
@@ -0,0 +1,92 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PortfolioProjectionTest {
+
+    @Test
+    void bucketsMatchMonthByMonthSum() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for(long seed = 0; seed < 3; seed++) {
+                InsuranceCompany company = GeneratedBook.build(seed, 600);
+                company.setBillingPool(pool);
+                GeneratedBook.operate(company, new Random(seed), 1500);
+                company.setCurrentTime(GeneratedBook.START.plusMonths(2).plusDays(20));
+                company.chargePremiumsOnContracts();
+                // later than the last run, so some payments are overdue when the projection starts
+                company.setCurrentTime(GeneratedBook.START.plusMonths(5).plusDays(3));
+
+                for(int[] shape : new int[][] {{12, 1}, {25, 3}, {24, 12}, {7, 10}}) {
+                    List<ProjectionBucket> buckets = new PortfolioProjection(company, shape[0], shape[1]).project().toList();
+                    long[] expected = monthByMonth(company, shape[0], shape[1]);
+
+                    assertEquals(expected.length / 2, buckets.size());
+                    for(int i = 0; i < buckets.size(); i++) {
+                        String message = "seed " + seed + " horizon " + shape[0] + " bucket " + i;
+                        assertEquals(expected[2 * i], buckets.get(i).getPremiumIncome(), message);
+                        assertEquals(expected[2 * i + 1], buckets.get(i).getPayments(), message);
+                        assertEquals(YearMonth.from(company.getCurrentTime()).plusMonths((long) i * shape[1]),
+                                buckets.get(i).getStart(), message);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // walks every month of the horizon and advances each schedule through it; overdue payments count in the first
+    private static long[] monthByMonth(InsuranceCompany company, int horizonMonths, int bucketMonths) {
+
+        YearMonth startMonth = YearMonth.from(company.getCurrentTime());
+        List<ContractPaymentData> units = new ArrayList<>();
+        for(AbstractContract contract : company.getContracts()) {
+            if(!contract.isActive()) {
+                continue;
+            }
+            if(contract instanceof MasterVehicleContract master) {
+                master.getChildContracts().forEach(child -> units.add(child.getContractPaymentData()));
+            } else {
+                units.add(contract.getContractPaymentData());
+            }
+        }
+
+        long[] monthTotals = new long[2 * horizonMonths];
+        LocalDateTime[] next = new LocalDateTime[units.size()];
+        for(int u = 0; u < units.size(); u++) {
+            next[u] = units.get(u).getNextPaymentTime();
+        }
+        for(int month = 0; month < horizonMonths; month++) {
+            YearMonth current = startMonth.plusMonths(month);
+            for(int u = 0; u < units.size(); u++) {
+                ContractPaymentData data = units.get(u);
+                while(!YearMonth.from(next[u]).isAfter(current)) {
+                    monthTotals[2 * month] += data.getPremium();
+                    monthTotals[2 * month + 1]++;
+                    next[u] = next[u].plusMonths(data.getPremiumPaymentFrequency().getValueInMonths());
+                }
+            }
+        }
+
+        long[] buckets = new long[2 * ((horizonMonths + bucketMonths - 1) / bucketMonths)];
+        for(int month = 0; month < horizonMonths; month++) {
+            buckets[2 * (month / bucketMonths)] += monthTotals[2 * month];
+            buckets[2 * (month / bucketMonths) + 1] += monthTotals[2 * month + 1];
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,140 @@
+package objects;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdentifierValidatorTest {
+
+    @Test
+    void birthNumbersMatchReferenceForEveryDatePrefix() {
+
+        for ( int prefix = 0; prefix < 1_000_000; prefix++ ) {
+            String date = String.format("%06d", prefix);
+            check(date + "000");
+            check(date + "123");
+
+            // every last digit, so each date meets both a passing and a failing mod 11 checksum
+            for ( int last = 0; last < 10; last++ ) {
+                check(date + "123" + last);
+            }
+        }
+    }
+
+    @Test
+    void birthNumbersMatchReferenceForEverySuffixAroundLeapDays() {
+
+        String[] dates = {"000229", "040229", "540229", "560229", "530229", "005229", "545229", "991231", "000431"};
+        for ( String date : dates ) {
+            for ( int suffix = 0; suffix < 10_000; suffix++ ) {
+                check(date + String.format("%04d", suffix));
+                if ( suffix < 1_000 ) {
+                    check(date + String.format("%03d", suffix));
+                }
+            }
+        }
+    }
+
+    @Test
+    void malformedIdentifiersMatchReference() {
+
+        char[] pool = "0123456789a- ٣٠٥".toCharArray();
+        Random random = new Random(3);
+
+        for ( int i = 0; i < 1_000_000; i++ ) {
+            int length = 5 + random.nextInt(7);
+            StringBuilder id = new StringBuilder(length);
+            for ( int k = 0; k < length; k++ ) {
+                id.append(random.nextInt(10) < 8 ? (char) ('0' + random.nextInt(10)) : pool[random.nextInt(pool.length)]);
+            }
+            check(id.toString());
+        }
+        check("");
+    }
+
+    private static void check(String id) {
+
+        boolean birthNumber = referenceBirthNumber(id);
+        boolean registrationNumber = referenceRegistrationNumber(id);
+        assertEquals(birthNumber, IdentifierValidator.isValidBirthNumber(id), id);
+        assertEquals(registrationNumber, IdentifierValidator.isValidRegistrationNumber(id), id);
+
+        // non-ASCII digits can't be encoded in the byte form, which only accepts ASCII
+        byte[] bytes = id.getBytes(StandardCharsets.ISO_8859_1);
+        if ( new String(bytes, StandardCharsets.ISO_8859_1).equals(id) ) {
+            ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 3);
+            buffer.position(3);
+            buffer.put(bytes);
+            assertEquals(birthNumber, IdentifierValidator.isValidBirthNumber(buffer, 3, bytes.length), id);
+            assertEquals(registrationNumber, IdentifierValidator.isValidRegistrationNumber(buffer, 3, bytes.length), id);
+        }
+    }
+
+    // the original Person validation, kept as the reference the allocation-free validator must agree with
+    private static boolean referenceBirthNumber(String birthNumber) {
+
+        if ( birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10) ) {
+            return false;
+        }
+
+        for ( char c : birthNumber.toCharArray() ) {
+            if ( !Character.isDigit(c) ) {
+                return false;
+            }
+        }
+
+        int RR = Integer.parseInt(birthNumber.substring(0, 2));
+        int MM = Integer.parseInt(birthNumber.substring(2, 4));
+        int DD = Integer.parseInt(birthNumber.substring(4, 6));
+
+        if ( !((MM >= 1 && MM <= 12) || (MM >= 51 && MM <= 62)) ) {
+            return false;
+        }
+
+        int realMM = (MM > 50) ? (MM - 50) : MM;
+        int realRR;
+
+        if ( birthNumber.length() == 9 ) {
+            if ( RR > 53 ) {
+                return false;
+            }
+            realRR = 1900 + RR;
+        } else {
+            realRR = (RR > 53) ? (1900 + RR) : (2000 + RR);
+            int sum = 0;
+            for ( int i = 0; i < birthNumber.length(); i++ ) {
+                sum += ((int) Math.pow(-1, i)) * (birthNumber.charAt(i) - '0');
+            }
+            if ( sum % 11 != 0 ) {
+                return false;
+            }
+        }
+
+        try {
+            LocalDate.of(realRR, realMM, DD);
+        } catch ( DateTimeException e ) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean referenceRegistrationNumber(String registrationNumber) {
+
+        if ( registrationNumber == null || !(registrationNumber.length() == 6 || registrationNumber.length() == 8) ) {
+            return false;
+        }
+
+        for ( char c : registrationNumber.toCharArray() ) {
+            if ( !Character.isDigit(c) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package payment;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MasterPaymentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    @Test
+    void allocationMatchesPerChildLoop() {
+
+        for ( int seed = 0; seed < 200; seed++ ) {
+            InsuranceCompany company = new InsuranceCompany(START);
+            InsuranceCompany expected = new InsuranceCompany(START);
+            MasterVehicleContract master = fleet(company, seed);
+            MasterVehicleContract expectedMaster = fleet(expected, seed);
+
+            Random random = new Random(seed);
+            List<Integer> payments = new ArrayList<>();
+            for ( int i = 0; i < 30 && master.isActive(); i++ ) {
+                int amount = 1 + random.nextInt(1 + random.nextInt(20_000));
+                company.getHandler().pay(master, amount);
+                payLikeBefore(expectedMaster, amount);
+                payments.add(amount);
+
+                // a claim now and then drops a child out of the allocation
+                if ( random.nextInt(4) == 0 ) {
+                    int index = random.nextInt(master.getChildContracts().size());
+                    children(master).get(index).setInactive();
+                    children(expectedMaster).get(index).setInactive();
+                }
+            }
+
+            List<SingleVehicleContract> children = children(master);
+            List<SingleVehicleContract> expectedChildren = children(expectedMaster);
+            for ( int i = 0; i < children.size(); i++ ) {
+                String message = "seed " + seed + " child " + i;
+                assertEquals(expectedChildren.get(i).isActive(), children.get(i).isActive(), message);
+                assertEquals(expectedChildren.get(i).getContractPaymentData().getOutstandingBalance(),
+                        children.get(i).getContractPaymentData().getOutstandingBalance(), message);
+            }
+            assertEquals(expectedMaster.getOutstandingBalance(), master.getOutstandingBalance(), "seed " + seed);
+            assertEquals(payments, company.getHandler().getPaymentHistory().get(master).getPayments().stream()
+                    .map(PaymentInstance::getPaymentAmount).toList(), "seed " + seed);
+        }
+    }
+
+    // the same fleet for the same seed: mixed premiums and frequencies, arrears, prepaid and inactive children
+    private static MasterVehicleContract fleet(InsuranceCompany company, long seed) {
+
+        Random random = new Random(seed);
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = company.createMasterVehicleContract("M", null, holder);
+
+        int size = 1 + random.nextInt(40);
+        for ( int i = 0; i < size; i++ ) {
+            SingleVehicleContract child = company.insureVehicle("C" + i, null, holder, 20 + random.nextInt(300),
+                    FREQUENCIES[random.nextInt(FREQUENCIES.length)], new Vehicle(Vehicle.decodeLicensePlate(i), 1000));
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            child.getContractPaymentData().setOutstandingBalance(random.nextInt(2_500) - 500);
+        }
+        for ( int i = 1; i < size; i++ ) {
+            if ( random.nextInt(6) == 0 ) {
+                children(master).get(i).setInactive();
+            }
+        }
+        return master;
+    }
+
+    private static List<SingleVehicleContract> children(MasterVehicleContract master) {
+        return List.copyOf(master.getChildContracts());
+    }
+
+    // the allocation the rounds replaced: arrears first, then one premium per active child until the amount runs out
+    private static void payLikeBefore(MasterVehicleContract master, int amount) {
+
+        for ( SingleVehicleContract child : master.getChildContracts() ) {
+            if ( !child.isActive() ) {
+                continue;
+            }
+
+            ContractPaymentData paymentData = child.getContractPaymentData();
+            int balance = paymentData.getOutstandingBalance();
+            if ( balance > 0 ) {
+                if ( amount >= balance ) {
+                    amount -= balance;
+                    paymentData.setOutstandingBalance(0);
+                } else {
+                    paymentData.setOutstandingBalance(balance - amount);
+                    amount = 0;
+                    break;
+                }
+            }
+        }
+
+        while ( amount > 0 ) {
+            boolean paid = false;
+            for ( SingleVehicleContract child : master.getChildContracts() ) {
+                if ( !child.isActive() ) {
+                    continue;
+                }
+
+                ContractPaymentData paymentData = child.getContractPaymentData();
+                int payment = Math.min(amount, paymentData.getPremium());
+                paymentData.setOutstandingBalance(paymentData.getOutstandingBalance() - payment);
+                amount -= payment;
+                paid = true;
+                if ( amount == 0 ) {
+                    break;
+                }
+            }
+            if ( !paid ) {
+                break;
+            }
+        }
+    }
+}
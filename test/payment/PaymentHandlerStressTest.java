@@ -0,0 +1,150 @@
+package payment;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentHandlerStressTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+    private static final int CONTRACTS = 100;
+    private static final int CHILDREN = 10;
+    private static final int PREMIUM = 100;
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 20_000;
+
+    private InsuranceCompany company;
+    private List<SingleVehicleContract> contracts;
+    private MasterVehicleContract master;
+
+    @BeforeEach
+    void setUp() {
+
+        company = new InsuranceCompany(START);
+        Person holder = new Person("12345678");
+        master = company.createMasterVehicleContract("M", null, holder);
+        contracts = new ArrayList<>();
+
+        for ( int i = 0; i < CONTRACTS; i++ ) {
+            Vehicle vehicle = new Vehicle(Vehicle.decodeLicensePlate(i), 1000);
+            contracts.add(company.insureVehicle("C" + i, null, holder, PREMIUM, PremiumPaymentFrequency.MONTHLY, vehicle));
+        }
+        for ( int i = 0; i < CHILDREN; i++ ) {
+            company.moveSingleVehicleContractToMasterVehicleContract(master, contracts.get(i));
+        }
+    }
+
+    @Test
+    void concurrentPaymentsLoseNoUpdates() throws Exception {
+
+        long paid = runPayers(new AtomicBoolean(true));
+
+        assertEquals((long) CONTRACTS * PREMIUM - paid, totalBalance());
+        assertEquals(THREADS * PAYMENTS_PER_THREAD, singlePaymentCount());
+    }
+
+    @Test
+    void paymentsDuringBillingLoseNoUpdates() throws Exception {
+
+        AtomicBoolean started = new AtomicBoolean(false);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        ExecutorService biller = Executors.newSingleThreadExecutor();
+        Future<Integer> billingRun = biller.submit(() -> {
+            while ( !started.get() ) {
+                Thread.onSpinWait();
+            }
+            int months = 0;
+            while ( !finished.get() ) {
+                months++;
+                company.setCurrentTime(START.plusMonths(months));
+                company.chargePremiumsOnContracts();
+            }
+            return months;
+        });
+
+        long paid = runPayers(started);
+        finished.set(true);
+        int months = billingRun.get();
+        biller.shutdown();
+
+        assertEquals((long) CONTRACTS * PREMIUM * (months + 1) - paid, totalBalance());
+        assertEquals(THREADS * PAYMENTS_PER_THREAD, singlePaymentCount());
+    }
+
+    // each thread pays 1 on a rotating contract and 10 on the master every 50th payment
+    private long runPayers(AtomicBoolean started) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        AtomicLong paid = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for ( int t = 0; t < THREADS; t++ ) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                for ( int k = 0; k < PAYMENTS_PER_THREAD; k++ ) {
+                    company.getHandler().pay(contracts.get((k + offset) % CONTRACTS), 1);
+                    paid.incrementAndGet();
+                    if ( k % 50 == 0 ) {
+                        company.getHandler().pay(master, 10);
+                        paid.addAndGet(10);
+                    }
+                }
+            }));
+        }
+
+        ready.await();
+        started.set(true);
+        for ( Future<?> future : futures ) {
+            future.get();
+        }
+        executor.shutdown();
+        return paid.get();
+    }
+
+    private long totalBalance() {
+
+        long total = 0;
+        for ( SingleVehicleContract contract : contracts ) {
+            total += contract.getContractPaymentData().getOutstandingBalance();
+        }
+        assertEquals(total - sumOutsideMaster(), master.getOutstandingBalance());
+        return total;
+    }
+
+    private long sumOutsideMaster() {
+
+        long total = 0;
+        for ( int i = CHILDREN; i < CONTRACTS; i++ ) {
+            total += contracts.get(i).getContractPaymentData().getOutstandingBalance();
+        }
+        return total;
+    }
+
+    private int singlePaymentCount() {
+
+        int count = 0;
+        for ( SingleVehicleContract contract : contracts ) {
+            PaymentLog log = company.getHandler().getPaymentHistory().get(contract);
+            count += log == null ? 0 : log.size();
+        }
+        return count;
+    }
+}
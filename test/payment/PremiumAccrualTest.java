@@ -0,0 +1,99 @@
+package payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PremiumAccrualTest {
+
+    private static final LocalTime[] TIMES = {LocalTime.MIDNIGHT, LocalTime.of(12, 30), LocalTime.of(23, 59, 59)};
+
+    @Test
+    void matchesPerPeriodLoopForEveryStartDay() {
+
+        Random random = new Random(2);
+
+        // every day of a leap and a common year, so each month end and Feb 29 start a schedule
+        for ( LocalDate day = LocalDate.of(2023, 1, 1); day.isBefore(LocalDate.of(2025, 1, 1)); day = day.plusDays(1) ) {
+            for ( LocalTime time : TIMES ) {
+                LocalDateTime next = LocalDateTime.of(day, time);
+                for ( PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values() ) {
+                    check(next, frequency, next.minusSeconds(1));
+                    check(next, frequency, next);
+                    for ( int i = 0; i < 8; i++ ) {
+                        check(next, frequency, next.plusMinutes(random.nextInt(60 * 24 * 366 * 12)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesPerPeriodLoopOnDueDatesAndAroundThem() {
+
+        for ( int day = 28; day <= 31; day++ ) {
+            LocalDateTime next = LocalDateTime.of(2024, 1, day, 9, 0);
+            for ( PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values() ) {
+                LocalDateTime due = next;
+                for ( int period = 0; period < 150; period++ ) {
+                    check(next, frequency, due.minusNanos(1));
+                    check(next, frequency, due);
+                    check(next, frequency, due.plusNanos(1));
+                    due = due.plusMonths(frequency.getValueInMonths());
+                }
+            }
+        }
+    }
+
+    @Test
+    void chargeDuePremiumsMatchesPerPeriodLoop() {
+
+        Random random = new Random(5);
+
+        for ( int i = 0; i < 20_000; i++ ) {
+            PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[random.nextInt(4)];
+            LocalDateTime next = LocalDateTime.of(2020 + random.nextInt(5), 1 + random.nextInt(12), 1, 0, 0)
+                    .plusDays(random.nextInt(31)).plusHours(random.nextInt(24));
+            int premium = 1 + random.nextInt(500);
+            int balance = random.nextInt(1000) - 500;
+            LocalDateTime currentTime = next.plusHours(random.nextInt(24 * 365 * 10) - 24 * 30);
+
+            ContractPaymentData paymentData = new ContractPaymentData(premium, frequency, next, balance);
+            int periods = paymentData.chargeDuePremiums(currentTime);
+
+            LocalDateTime expectedNext = next;
+            int expectedBalance = balance;
+            int expectedPeriods = 0;
+            while ( !expectedNext.isAfter(currentTime) ) {
+                expectedBalance += premium;
+                expectedNext = expectedNext.plusMonths(frequency.getValueInMonths());
+                expectedPeriods++;
+            }
+
+            assertEquals(expectedPeriods, periods);
+            assertEquals(expectedBalance, paymentData.getOutstandingBalance());
+            assertEquals(expectedNext, paymentData.getNextPaymentTime());
+        }
+    }
+
+    // the accrual loop the closed form replaced
+    private static void check(LocalDateTime next, PremiumPaymentFrequency frequency, LocalDateTime currentTime) {
+
+        int expectedPeriods = 0;
+        LocalDateTime expectedNext = next;
+        while ( !expectedNext.isAfter(currentTime) ) {
+            expectedNext = expectedNext.plusMonths(frequency.getValueInMonths());
+            expectedPeriods++;
+        }
+
+        int periods = PremiumAccrual.duePeriods(next, frequency, currentTime);
+        String message = next + " " + frequency + " " + currentTime;
+        assertEquals(expectedPeriods, periods, message);
+        assertEquals(expectedNext, PremiumAccrual.advance(next, frequency, periods), message);
+    }
+}
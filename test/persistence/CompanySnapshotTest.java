@@ -0,0 +1,173 @@
+package persistence;
+
+import company.DelinquencyIndex;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import payment.ContractPaymentData;
+import payment.PaymentLog;
+import payment.PremiumPaymentFrequency;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompanySnapshotTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private InsuranceCompany company;
+
+    @BeforeEach
+    void setUp() {
+
+        company = new InsuranceCompany(START);
+        Person owner = company.getPersonRegistry().register(new Person("12345678"));
+        Person driver = company.getPersonRegistry().register(new Person("0001010009"));
+        Person traveller = company.getPersonRegistry().register(new Person("8001011205"));
+
+        MasterVehicleContract master = company.createMasterVehicleContract("M", driver, owner);
+        for ( int i = 0; i < 5; i++ ) {
+            SingleVehicleContract child = company.insureVehicle("C" + i, null, owner, 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle(Vehicle.decodeLicensePlate(i), 1000));
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        }
+        SingleVehicleContract single = company.insureVehicle("V", traveller, driver, 50,
+                PremiumPaymentFrequency.QUARTERLY, new Vehicle("AB123CD", 2000));
+
+        Set<Person> insured = new LinkedHashSet<>();
+        insured.add(driver);
+        insured.add(traveller);
+        TravelContract travel = company.insurePersons("T", driver, 10, PremiumPaymentFrequency.ANNUAL, insured);
+        TravelContract expired = company.insurePersons("X", traveller, 5, PremiumPaymentFrequency.ANNUAL,
+                Set.of(traveller));
+
+        company.setCurrentTime(START.plusMonths(3));
+        company.chargePremiumsOnContracts();
+        company.getHandler().pay(master, 250);
+        company.getHandler().pay(single, 30);
+        company.processClaim((SingleVehicleContract) company.getContract("C1"), 400);
+        company.processClaim(travel, Set.of(traveller));
+        expired.setInactive();
+    }
+
+    @Test
+    void roundTripRestoresBook() throws Exception {
+
+        Path path = directory.resolve("company.snapshot");
+        CompanySnapshot.write(company, path);
+        InsuranceCompany restored = CompanySnapshot.read(path);
+
+        assertEquals(company.getCurrentTime(), restored.getCurrentTime());
+        assertEquals(company.getContracts().size(), restored.getContracts().size());
+
+        for ( AbstractContract contract : company.getContracts() ) {
+            AbstractContract copy = restored.getContract(contract.getContractNumber());
+            assertSame(contract.getClass(), copy.getClass());
+            assertEquals(contract.isActive(), copy.isActive());
+            assertEquals(contract.getCoverageAmount(), copy.getCoverageAmount());
+            assertEquals(contract.getPolicyHolder().getId(), copy.getPolicyHolder().getId());
+            assertEquals(contract.getPolicyHolder().getPaidOutAmount(), copy.getPolicyHolder().getPaidOutAmount());
+            assertEquals(paymentCount(company, contract), paymentCount(restored, copy));
+
+            ContractPaymentData data = contract.getContractPaymentData();
+            if ( data != null ) {
+                assertEquals(data.getPremium(), copy.getContractPaymentData().getPremium());
+                assertEquals(data.getOutstandingBalance(), copy.getContractPaymentData().getOutstandingBalance());
+                assertEquals(data.getNextPaymentTime(), copy.getContractPaymentData().getNextPaymentTime());
+            }
+        }
+
+        MasterVehicleContract master = (MasterVehicleContract) restored.getContract("M");
+        assertEquals(5, master.getChildContracts().size());
+        assertEquals(((MasterVehicleContract) company.getContract("M")).getOutstandingBalance(),
+                master.getOutstandingBalance());
+        for ( SingleVehicleContract child : master.getChildContracts() ) {
+            assertSame(master, child.getMasterContract());
+            assertSame(child, restored.findContractByLicensePlate(child.getInsuredVehicle().getLicensePlate()));
+        }
+
+        // persons shared between contracts stay a single instance
+        Person driver = restored.getContract("V").getPolicyHolder();
+        assertSame(driver, restored.getContract("T").getPolicyHolder());
+        assertSame(driver, restored.getPersonRegistry().find(driver.getId()));
+        assertTrue(restored.verifyAggregates());
+    }
+
+    @Test
+    void roundTripKeepsDelinquencySettingsAndCrossings() {
+
+        Path path = directory.resolve("company.snapshot");
+        InsuranceCompany book = new InsuranceCompany(START);
+        book.getDelinquencyIndex().setDunningThreshold(2);
+        book.getDelinquencyIndex().setGracePeriod(Duration.ofDays(40));
+        Person holder = new Person("12345678");
+        for ( int i = 0; i < 2; i++ ) {
+            book.insureVehicle("V" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(Vehicle.decodeLicensePlate(i), 1000));
+        }
+        LocalDateTime crossing = START.plusMonths(1);
+        book.setCurrentTime(crossing);
+        book.chargePremiumsOnContracts();
+        // V1's crossing goes stale once it's paid back under the threshold
+        book.getHandler().pay(book.getContract("V1"), 200);
+        book.setCurrentTime(crossing.plusDays(5));
+
+        CompanySnapshot.write(book, path);
+        InsuranceCompany restored = CompanySnapshot.read(path);
+
+        DelinquencyIndex index = restored.getDelinquencyIndex();
+        assertEquals(2, index.getDunningThreshold());
+        assertEquals(Duration.ofDays(40), index.getGracePeriod());
+        assertEquals(List.of(new DelinquencyIndex.Crossing(restored.getContract("V0"), crossing)),
+                index.getPendingCrossings());
+        assertEquals(List.of(restored.getContract("V0")), index.pollDunning());
+
+        restored.setCurrentTime(crossing.plusDays(39));
+        restored.chargePremiumsOnContracts();
+        assertTrue(restored.getContract("V0").isActive());
+
+        restored.setCurrentTime(crossing.plusDays(40));
+        restored.chargePremiumsOnContracts();
+        assertFalse(restored.getContract("V0").isActive());
+        assertTrue(restored.getContract("V1").isActive());
+    }
+
+    @Test
+    void writeReplacesExistingSnapshot() throws Exception {
+
+        Path path = directory.resolve("company.snapshot");
+        Files.write(path, new byte[] {1, 2, 3});
+        CompanySnapshot.write(company, path);
+
+        assertEquals(company.getContracts().size(), CompanySnapshot.read(path).getContracts().size());
+        try ( var files = Files.list(directory) ) {
+            assertEquals(1, files.count());
+        }
+        assertFalse(Files.exists(directory.resolve("company.snapshot.tmp")));
+    }
+
+    private static int paymentCount(InsuranceCompany company, AbstractContract contract) {
+        PaymentLog log = company.getHandler().getPaymentHistory().get(contract);
+        return log == null ? 0 : log.size();
+    }
+}
@@ -0,0 +1,57 @@
+package persistence;
+
+import company.InsuranceCompany;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContractImporterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void invalidRowsAreRejectedWithTheirReason() throws IOException {
+
+        Path source = directory.resolve("contracts.csv");
+        Path rejects = directory.resolve("rejects.tsv");
+        Files.write(source, List.of(
+                "V,V1,12345678,,200,MONTHLY,AA123BB,10000",
+                "T,T1,12345678,10,ANNUAL,0001010009;99999999999",
+                "T,T2,12345678,10,ANNUAL,87654321",
+                "V,V2,12345678,,1,MONTHLY,AA124BB,10000"));
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        ImportSummary summary = new ContractImporter(company).importFile(source, rejects);
+
+        assertEquals(4, summary.getRowsRead());
+        assertEquals(1, summary.getImported());
+        assertEquals(List.of(
+                "2\tid is invalid\tT,T1,12345678,10,ANNUAL,0001010009;99999999999",
+                "3\tpersonToInsure can't be LEGAL\tT,T2,12345678,10,ANNUAL,87654321",
+                "4\trestrictions aren't met for yearPrem\tV,V2,12345678,,1,MONTHLY,AA124BB,10000"),
+                Files.readAllLines(rejects));
+    }
+
+    @Test
+    void rejectedValidationFailsImport() throws IOException {
+
+        Path source = directory.resolve("contracts.csv");
+        Files.write(source, List.of("V,V1,12345678,,200,MONTHLY,AA123BB,10000"));
+
+        ContractImporter importer = new ContractImporter(new InsuranceCompany(START),
+                task -> { throw new RejectedExecutionException("validation executor is shut down"); }, 1);
+        assertThrows(RejectedExecutionException.class, () -> importer.importFile(source, directory.resolve("rejects.tsv")));
+    }
+}
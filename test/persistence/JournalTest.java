@@ -0,0 +1,143 @@
+package persistence;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import payment.PaymentLog;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JournalTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayAfterSnapshotAppliesOnlyNewerRecords() {
+
+        Path journalPath = directory.resolve("company.journal");
+        Path snapshotPath = directory.resolve("company.snapshot");
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        try ( Journal journal = new Journal(journalPath) ) {
+            company.setJournal(journal);
+            Person holder = new Person("12345678");
+            for ( int i = 0; i < 10; i++ ) {
+                company.insureVehicle("V" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                        new Vehicle(Vehicle.decodeLicensePlate(i), 1000));
+            }
+            company.setCurrentTime(START.plusMonths(1));
+            company.chargePremiumsOnContracts();
+            company.getHandler().pay(company.getContract("V0"), 40);
+
+            CompanySnapshot.write(company, snapshotPath);
+
+            company.insureVehicle("V10", null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(Vehicle.decodeLicensePlate(10), 1000));
+            company.setCurrentTime(START.plusMonths(2));
+            company.chargePremiumsOnContracts();
+            company.getHandler().pay(company.getContract("V0"), 70);
+            company.processClaim((SingleVehicleContract) company.getContract("V3"), 900);
+        }
+        company.setJournal(null);
+
+        InsuranceCompany restored = CompanySnapshot.read(snapshotPath);
+        assertEquals(5, Journal.replay(journalPath, restored));
+        assertEquals(0, Journal.replay(journalPath, restored));
+
+        assertEquals(company.getContracts().size(), restored.getContracts().size());
+        for ( AbstractContract contract : company.getContracts() ) {
+            AbstractContract copy = restored.getContract(contract.getContractNumber());
+            assertEquals(contract.isActive(), copy.isActive());
+            assertEquals(contract.getContractPaymentData().getOutstandingBalance(),
+                    copy.getContractPaymentData().getOutstandingBalance());
+            assertEquals(paymentCount(company, contract), paymentCount(restored, copy));
+        }
+    }
+
+    @Test
+    void reopeningCutsOffATornTail() throws IOException {
+
+        Path journalPath = directory.resolve("company.journal");
+        Person holder = new Person("12345678");
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        try ( Journal journal = new Journal(journalPath) ) {
+            company.setJournal(journal);
+            company.insureVehicle("V0", null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(Vehicle.decodeLicensePlate(0), 1000));
+        }
+        long intact = Files.size(journalPath);
+
+        // a frame header promising 50 bytes, cut off after 2 of them
+        Files.write(journalPath, new byte[] {0, 0, 0, 50, 1, 2, 3, 4, 9, 9}, StandardOpenOption.APPEND);
+
+        try ( Journal journal = new Journal(journalPath) ) {
+            assertEquals(intact, journal.position());
+            company.setJournal(journal);
+            company.insureVehicle("V1", null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(Vehicle.decodeLicensePlate(1), 1000));
+            company.getHandler().pay(company.getContract("V0"), 40);
+        }
+        company.setJournal(null);
+
+        InsuranceCompany restored = new InsuranceCompany(START);
+        assertEquals(3, Journal.replay(journalPath, restored));
+        assertNotNull(restored.getContract("V1"));
+        assertEquals(company.getContract("V0").getContractPaymentData().getOutstandingBalance(),
+                restored.getContract("V0").getContractPaymentData().getOutstandingBalance());
+        assertEquals(1, paymentCount(restored, restored.getContract("V0")));
+    }
+
+    @Test
+    void delinquencySettingsAreReplayed() {
+
+        Path journalPath = directory.resolve("company.journal");
+        InsuranceCompany company = new InsuranceCompany(START);
+        try ( Journal journal = new Journal(journalPath) ) {
+            company.setJournal(journal);
+            company.getDelinquencyIndex().setDunningThreshold(5);
+            company.getDelinquencyIndex().setGracePeriod(Duration.ofDays(10));
+            company.getDelinquencyIndex().setGracePeriod(null);
+            company.getDelinquencyIndex().setGracePeriod(Duration.ofHours(36));
+        }
+        company.setJournal(null);
+
+        InsuranceCompany restored = new InsuranceCompany(START);
+        assertEquals(4, Journal.replay(journalPath, restored));
+        assertEquals(5, restored.getDelinquencyIndex().getDunningThreshold());
+        assertEquals(Duration.ofHours(36), restored.getDelinquencyIndex().getGracePeriod());
+    }
+
+    @Test
+    void rejectedPaymentFailsReplay() {
+
+        Path journalPath = directory.resolve("company.journal");
+        try ( Journal journal = new Journal(journalPath) ) {
+            journal.pay("missing", 10, START);
+        }
+
+        assertThrows(IllegalStateException.class, () -> Journal.replay(journalPath, new InsuranceCompany(START)));
+    }
+
+    private static int paymentCount(InsuranceCompany company, AbstractContract contract) {
+        PaymentLog log = company.getHandler().getPaymentHistory().get(contract);
+        return log == null ? 0 : log.size();
+    }
+}
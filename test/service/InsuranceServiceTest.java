@@ -0,0 +1,96 @@
+package service;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InsuranceServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+    private static final int CONTRACTS = 200;
+    private static final int PREMIUM = 100;
+
+    @Test
+    void concurrentIssuanceAndPaymentsKeepTheBookConsistent() {
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        try ( InsuranceService service = new InsuranceService(company) ) {
+
+            // each contract is paid while others are still being issued
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for ( int i = 0; i < CONTRACTS; i++ ) {
+                String contractNumber = "V" + i;
+                requests.add(service.insureVehicle(contractNumber, null, "12345678", PREMIUM,
+                                PremiumPaymentFrequency.MONTHLY, Vehicle.decodeLicensePlate(i), 1000)
+                        .thenCompose(_ -> service.pay(contractNumber, 30)));
+            }
+            for ( int i = 0; i < CONTRACTS; i += 2 ) {
+                requests.add(service.insurePersons("T" + i, "12345678", 10, PremiumPaymentFrequency.MONTHLY,
+                        Set.of("010101000", "020101000")).thenApply(_ -> null));
+            }
+            CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+
+            service.chargePremiums(START.plusMonths(1)).join();
+        }
+
+        assertTrue(company.verifyAggregates());
+        assertEquals(CONTRACTS + CONTRACTS / 2, company.getContracts().size());
+        assertEquals(CONTRACTS + CONTRACTS / 2, company.getPersonRegistry().find("12345678").getContracts().size());
+        for ( int i = 0; i < CONTRACTS; i++ ) {
+            AbstractContract contract = company.getContract("V" + i);
+            assertEquals(2 * PREMIUM - 30, contract.getContractPaymentData().getOutstandingBalance());
+            assertEquals(1, company.getHandler().getPaymentHistory().get(contract).size());
+        }
+    }
+
+    @Test
+    void httpEndpointRunsRequestsAgainstTheCompany() throws Exception {
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        try ( InsuranceService service = new InsuranceService(company);
+              InsuranceHttpServer server = new InsuranceHttpServer(service, 0) ) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getPort();
+
+            assertEquals("20", get(client, base + "/quote/vehicle?value=1000&frequency=ANNUAL").body());
+            assertEquals("V0", get(client, base + "/insure/vehicle?contract=V0&holder=12345678&premium=100"
+                    + "&frequency=MONTHLY&plate=" + Vehicle.decodeLicensePlate(0) + "&value=1000").body());
+            assertEquals("T0", get(client, base + "/insure/travel?contract=T0&holder=12345678&premium=10"
+                    + "&frequency=MONTHLY&persons=010101000,020101000").body());
+            assertEquals("ok", get(client, base + "/pay?contract=V0&amount=40").body());
+            assertEquals("ok", get(client, base + "/charge?time=" + START.plusMonths(1)).body());
+            assertEquals("ok", get(client, base + "/claim/travel?contract=T0&persons=010101000").body());
+
+            assertEquals(404, get(client, base + "/pay?contract=missing&amount=40").statusCode());
+            assertEquals(400, get(client, base + "/pay?contract=V0").statusCode());
+            assertEquals(409, get(client, base + "/claim/vehicle?contract=T0&damages=10").statusCode());
+            assertEquals(409, get(client, base + "/pay?contract=T0&amount=10").statusCode());
+        }
+
+        assertEquals(2 * 100 - 40, company.getContract("V0").getContractPaymentData().getOutstandingBalance());
+        assertEquals(START.plusMonths(1), company.getCurrentTime());
+        assertFalse(company.getContract("T0").isActive());
+        assertEquals(20, company.getPersonRegistry().find("010101000").getPaidOutAmount());
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}